@@ -0,0 +1,80 @@
+package org.example.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameState#update} over a bullet field where a small share of bullets leaves the arena each tick.
+ * Each invocation updates a fresh state from a pool that is reset in place before every iteration, so removals
+ * don't shrink the workload and neither the reset nor its allocations are part of the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = GameStateUpdateBenchmark.POOL)
+@Measurement(iterations = 20, batchSize = GameStateUpdateBenchmark.POOL)
+// A batch is timed as one shot; report the time per invocation
+@OperationsPerInvocation(GameStateUpdateBenchmark.POOL)
+@Fork(1)
+public class GameStateUpdateBenchmark {
+    // States per iteration, one per invocation
+    static final int POOL = 32;
+
+    @Param({"1000", "10000", "50000"})
+    public int bullets;
+
+    private double[] startX;
+    private double[] startY;
+    private GameState[] states;
+    private Bullet[][] pool;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createBullets() {
+        Random random = new Random(42);
+        startX = new double[bullets];
+        startY = new double[bullets];
+        double[] angles = new double[bullets];
+        for (int i = 0; i < bullets; i++) {
+            // About 5% start at the edge and leave on this tick
+            boolean leaving = i % 20 == 0;
+            startX[i] = leaving ? 799 : 50 + random.nextDouble() * 700;
+            startY[i] = 50 + random.nextDouble() * 500;
+            angles[i] = leaving ? 0 : random.nextDouble() * 360;
+        }
+        states = new GameState[POOL];
+        pool = new Bullet[POOL][bullets];
+        for (int s = 0; s < POOL; s++) {
+            states[s] = new GameState();
+            for (int i = 0; i < bullets; i++) {
+                pool[s][i] = new Bullet(i, "p" + (i % 8), startX[i], startY[i], angles[i], 8.0);
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStates() {
+        for (int s = 0; s < POOL; s++) {
+            List<Bullet> list = states[s].getBullets();
+            list.clear();
+            for (int i = 0; i < bullets; i++) {
+                Bullet bullet = pool[s][i];
+                bullet.setX(startX[i]);
+                bullet.setY(startY[i]);
+                bullet.setActive(true);
+                list.add(bullet);
+            }
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public GameState update() {
+        GameState state = states[next++];
+        state.update(16);
+        return state;
+    }
+}
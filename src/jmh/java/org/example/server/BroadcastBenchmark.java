@@ -0,0 +1,104 @@
+package org.example.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import org.example.config.WebSocketCompressionProperties;
+import org.example.metrics.GameMetrics;
+import org.example.model.Bullet;
+import org.example.model.GameState;
+import org.example.model.Spaceship;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConnectionManager#broadcast} fan-out of one GAME_STATE snapshot to {@link EmbeddedChannel}s.
+ * Written frames are released inside the measured method, like a socket write would consume them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int channels;
+
+    /** Whether the channels negotiated permessage-deflate, so the payload is compressed once and shared */
+    @Param({"false", "true"})
+    public boolean deflate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AnnotationConfigApplicationContext context;
+    private ConnectionManager connectionManager;
+    private List<EmbeddedChannel> embedded;
+    private Map<String, Object> message;
+
+    @Setup(Level.Trial)
+    public void connect() {
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(SimpleMeterRegistry.class);
+        context.registerBean(WebSocketCompressionProperties.class);
+        context.registerBean(WebSocketCompression.class);
+        context.registerBean(GameMetrics.class);
+        context.registerBean(ConnectionManager.class);
+        context.refresh();
+        connectionManager = context.getBean(ConnectionManager.class);
+
+        // Same key WebSocketCompression sets when the handshake response carries the extension
+        AttributeKey<Boolean> negotiated = AttributeKey.valueOf("permessageDeflate");
+        embedded = new ArrayList<>(channels);
+        for (int i = 0; i < channels; i++) {
+            EmbeddedChannel channel = new EmbeddedChannel();
+            channel.attr(negotiated).set(deflate);
+            connectionManager.addConnection(channel, "bot" + i);
+            embedded.add(channel);
+        }
+
+        GameState state = new GameState();
+        Random random = new Random(42);
+        for (int i = 0; i < 8; i++) {
+            Spaceship spaceship = new Spaceship("p" + i, random.nextDouble() * 800, random.nextDouble() * 600);
+            spaceship.setId(i);
+            state.addSpaceship(spaceship);
+        }
+        for (int i = 0; i < 200; i++) {
+            state.addBullet(new Bullet(i, "p" + (i % 8), random.nextDouble() * 800, random.nextDouble() * 600,
+                    random.nextDouble() * 360, 8.0));
+        }
+        message = new HashMap<>();
+        message.put("type", "GAME_STATE");
+        message.put("data", SnapshotEncoder.encode(state));
+    }
+
+    @Benchmark
+    public int broadcast() {
+        connectionManager.broadcast(message, objectMapper);
+        int frames = 0;
+        for (EmbeddedChannel channel : embedded) {
+            Object frame;
+            while ((frame = channel.readOutbound()) != null) {
+                ReferenceCountUtil.release(frame);
+                frames++;
+            }
+        }
+        return frames;
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        embedded.forEach(EmbeddedChannel::finishAndReleaseAll);
+        context.close();
+    }
+}
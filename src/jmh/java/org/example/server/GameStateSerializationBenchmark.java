@@ -0,0 +1,68 @@
+package org.example.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.example.model.Bullet;
+import org.example.model.GameState;
+import org.example.model.Spaceship;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GAME_STATE snapshot encoding as {@link ConnectionManager} does it: Jackson to a String, then UTF-8 into a pooled buffer.
+ * {@code compact} is the {@link SnapshotEncoder} payload the server sends; {@code full} the whole {@link GameState}
+ * it used to send, for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameStateSerializationBenchmark {
+
+    @Param({"2", "8", "32"})
+    public int ships;
+
+    @Param({"0", "100", "1000"})
+    public int bullets;
+
+    @Param({"full", "compact"})
+    public String format;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Map<String, Object> message;
+
+    @Setup(Level.Trial)
+    public void createState() {
+        GameState state = new GameState();
+        Random random = new Random(42);
+        for (int i = 0; i < ships; i++) {
+            Spaceship spaceship = new Spaceship("p" + i, random.nextDouble() * 800, random.nextDouble() * 600);
+            spaceship.setId(i);
+            state.addSpaceship(spaceship);
+        }
+        for (int i = 0; i < bullets; i++) {
+            state.addBullet(new Bullet(i, "p" + (i % ships), random.nextDouble() * 800, random.nextDouble() * 600,
+                    random.nextDouble() * 360, 8.0));
+        }
+        message = new HashMap<>();
+        message.put("type", "GAME_STATE");
+        message.put("data", format.equals("compact") ? SnapshotEncoder.encode(state) : state);
+    }
+
+    @Benchmark
+    public int encode() throws Exception {
+        String json = objectMapper.writeValueAsString(message);
+        ByteBuf payload = ByteBufUtil.writeUtf8(PooledByteBufAllocator.DEFAULT, json);
+        int size = payload.readableBytes();
+        payload.release();
+        return size;
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.simulation;
+
+import org.example.model.Arena;
+import org.example.model.Bullet;
+import org.example.model.GameState;
+import org.example.model.Spaceship;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameSimulation#checkCollisions} at varying ship and bullet counts. Ships can't die here.
+ * Each invocation checks a different one of a pool of identical rooms, and bullets spent on hits are re-armed
+ * before every iteration, so every invocation sees the same hits without per-invocation setup.
+ * With {@code regions > 1} the bullets are scanned in that many bands on a pool of as many threads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = CheckCollisionsBenchmark.ROOMS)
+@Measurement(iterations = 20, batchSize = CheckCollisionsBenchmark.ROOMS)
+// A batch is timed as one shot; report the time per invocation
+@OperationsPerInvocation(CheckCollisionsBenchmark.ROOMS)
+@Fork(1)
+public class CheckCollisionsBenchmark {
+    // Rooms per iteration, one per invocation
+    static final int ROOMS = 32;
+
+    @Param({"2", "8", "32"})
+    public int ships;
+
+    @Param({"100", "1000", "10000"})
+    public int bullets;
+
+    // Steps each bullet rewinds; 0 tests against current positions only
+    @Param({"0", "6"})
+    public int lagTicks;
+
+    // Bands the pass is split into; 1 runs it on the benchmark thread
+    @Param({"1", "4"})
+    public int regions;
+
+    private GameSimulation[] simulations;
+    private ForkJoinPool pool;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createRooms() {
+        if (regions > 1) {
+            pool = new ForkJoinPool(regions);
+        }
+        simulations = new GameSimulation[ROOMS];
+        for (int r = 0; r < ROOMS; r++) {
+            simulations[r] = createRoom();
+        }
+    }
+
+    private GameSimulation createRoom() {
+        GameSimulation simulation = new GameSimulation("bench", 42, GameSimulation.DEFAULT_STEP_MS, 12, SimulationRecorder.NONE);
+        GameState state = simulation.getState();
+        Arena arena = simulation.getArena();
+        Random random = new Random(42);
+        for (int i = 0; i < ships; i++) {
+            simulation.spawn("p" + i).setHealth(Integer.MAX_VALUE);
+        }
+        // Fill the position history
+        for (int i = 0; i < 12; i++) {
+            simulation.step(Collections.emptyList());
+        }
+        if (pool != null) {
+            simulation.enableParallel(pool, 0);
+        }
+        for (int i = 0; i < bullets; i++) {
+            Bullet bullet = new Bullet(i, "p" + (i % ships), random.nextDouble() * arena.width(), random.nextDouble() * arena.height(),
+                    random.nextDouble() * 360, 8.0);
+            bullet.setLagTicks(lagTicks);
+            state.addBullet(bullet);
+        }
+        return simulation;
+    }
+
+    @TearDown(Level.Trial)
+    public void closePool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void rearm() {
+        for (GameSimulation simulation : simulations) {
+            for (Bullet bullet : simulation.getState().getBullets()) {
+                bullet.setActive(true);
+            }
+            for (Spaceship ship : simulation.getState().getSpaceships().values()) {
+                ship.setHealth(Integer.MAX_VALUE);
+            }
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public GameSimulation checkCollisions() {
+        GameSimulation simulation = simulations[next++];
+        simulation.checkCollisions(regions);
+        return simulation;
+    }
+}
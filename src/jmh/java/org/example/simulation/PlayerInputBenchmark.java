@@ -0,0 +1,54 @@
+package org.example.simulation;
+
+import org.example.model.PlayerInput;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One player's input path: queued from the I/O side, drained and applied by a simulation step of a small room.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerInputBenchmark {
+
+    @Param({"false", "true"})
+    public boolean shoot;
+
+    private GameSimulation simulation;
+    private PlayerInput input;
+
+    @Setup(Level.Trial)
+    public void createRoom() {
+        simulation = new GameSimulation("bench", 42);
+        List<String> players = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            players.add("p" + i);
+        }
+        simulation.spawnAll(players);
+
+        input = new PlayerInput();
+        input.setMoveUp(true);
+        input.setRotateLeft(true);
+        input.setShoot(shoot);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearBullets() {
+        simulation.getState().getBullets().clear();
+    }
+
+    @Benchmark
+    public GameSimulation submitAndStep() {
+        input.setSeq(input.getSeq() + 1);
+        simulation.submit("p0", input);
+        simulation.step(simulation.drainInputs());
+        return simulation;
+    }
+}
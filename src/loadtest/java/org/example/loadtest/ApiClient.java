@@ -0,0 +1,84 @@
+package org.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Blocking calls to the game server's REST API.
+ */
+class ApiClient {
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Registers the user if needed and returns a session token.
+     */
+    String registerAndLogin(String username, String password) throws IOException, InterruptedException {
+        Map<String, String> credentials = Map.of("username", username, "password", password);
+        // "Username already exists" comes back as 400, which is fine for a rerun
+        send("POST", "/api/auth/register", credentials, null, false);
+        return send("POST", "/api/auth/login", credentials, null, true).get("token").asText();
+    }
+
+    String createLobby(String token, String name) throws IOException, InterruptedException {
+        return send("POST", "/api/lobbies/create", Map.of("name", name), token, true).get("id").asText();
+    }
+
+    void joinLobby(String token, String lobbyId) throws IOException, InterruptedException {
+        send("POST", "/api/lobbies/" + lobbyId + "/join", null, token, true);
+    }
+
+    void toggleReady(String token, String lobbyId) throws IOException, InterruptedException {
+        send("POST", "/api/lobbies/" + lobbyId + "/ready/toggle", null, token, true);
+    }
+
+    void startLobby(String token, String lobbyId) throws IOException, InterruptedException {
+        send("POST", "/api/lobbies/" + lobbyId + "/start", null, token, true);
+    }
+
+    /**
+     * Reads one meter from /actuator/metrics; returns null if it isn't available.
+     */
+    JsonNode metric(String token, String name) {
+        try {
+            return send("GET", "/actuator/metrics/" + name, null, token, true);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private JsonNode send(String method, String path, Object body, String token, boolean requireSuccess)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        request.method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (requireSuccess && response.statusCode() / 100 != 2) {
+            throw new IOException(method + " " + path + " failed: " + response.statusCode() + " " + response.body());
+        }
+        String text = response.body();
+        return text == null || text.isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(text);
+    }
+}
@@ -0,0 +1,307 @@
+package org.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketClientProtocolHandler;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameAggregator;
+import io.netty.handler.codec.http.websocketx.WebSocketVersion;
+import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketClientCompressionHandler;
+
+import java.net.URI;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One scripted player: a WebSocket connection authenticated with a session token, sending
+ * randomized INPUT at a fixed rate once it is in a match and measuring the snapshots it receives.
+ */
+class BotClient {
+    private static final int MAX_FRAME_SIZE = 4 * 1024 * 1024;
+    private static final int SENT_HISTORY = 1024;
+    // The server's default snapshot rate, for servers that don't report their period
+    private static final long DEFAULT_SNAPSHOT_PERIOD_MS = 33;
+
+    private final String username;
+    private final LoadTestConfig config;
+    private final LoadStats stats;
+    private final ObjectMapper objectMapper;
+    private final Random random;
+
+    private String token;
+    private Channel channel;
+    private ScheduledFuture<?> inputTask;
+    private Consumer<BotClient> onGameOver = bot -> {};
+
+    // Touched only on the channel's event loop
+    // Own ship's entity id and where its input ack sits in the snapshot's flat ship array
+    private int shipId = -1;
+    private int shipStride;
+    private int seqField;
+    private boolean inMatch;
+    private long seq;
+    private final long[] sentAt = new long[SENT_HISTORY];
+    private long lastAckedSeq;
+    // Tick of the latest snapshot, echoed in inputs for lag compensation
+    private long viewTick;
+    private long lastSnapshotNanos;
+    private long snapshotPeriodNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SNAPSHOT_PERIOD_MS);
+    private int intentTicks;
+    private boolean moveUp, rotateLeft, rotateRight, shoot;
+
+    BotClient(String username, LoadTestConfig config, LoadStats stats, ObjectMapper objectMapper, long seed) {
+        this.username = username;
+        this.config = config;
+        this.stats = stats;
+        this.objectMapper = objectMapper;
+        this.random = new Random(seed);
+    }
+
+    CompletableFuture<BotClient> connect(EventLoopGroup group, String token) {
+        this.token = token;
+        CompletableFuture<BotClient> ready = new CompletableFuture<>();
+        URI uri = URI.create(config.wsUrl);
+        // The header keeps the token out of the server's access logs
+        HttpHeaders headers = new DefaultHttpHeaders().set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token);
+
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new WireCounter());
+                        ch.pipeline().addLast(new HttpClientCodec());
+                        ch.pipeline().addLast(new HttpObjectAggregator(8192));
+                        if (config.compression) {
+                            ch.pipeline().addLast(WebSocketClientCompressionHandler.INSTANCE);
+                        }
+                        ch.pipeline().addLast(new WebSocketClientProtocolHandler(uri, WebSocketVersion.V13, null,
+                                config.compression, headers, MAX_FRAME_SIZE));
+                        ch.pipeline().addLast(new WebSocketFrameAggregator(MAX_FRAME_SIZE));
+                        ch.pipeline().addLast(new BotHandler(ready));
+                    }
+                });
+
+        ChannelFuture future = bootstrap.connect(uri.getHost(), uri.getPort());
+        channel = future.channel();
+        future.addListener(f -> {
+            if (!f.isSuccess()) {
+                ready.completeExceptionally(f.cause());
+            }
+        });
+        return ready;
+    }
+
+    /**
+     * Ad-hoc join into the shared default room.
+     */
+    void sendStart() {
+        send("{\"type\":\"START\",\"data\":{}}");
+    }
+
+    void onGameOver(Consumer<BotClient> listener) {
+        this.onGameOver = listener;
+    }
+
+    void close() {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    String getUsername() { return username; }
+    String getToken() { return token; }
+
+    private void send(String json) {
+        if (channel != null && channel.isActive()) {
+            channel.writeAndFlush(new TextWebSocketFrame(json));
+        }
+    }
+
+    private void startInputs() {
+        long periodMicros = (long) (1_000_000 / config.inputRate);
+        // Random phase so bots don't send in lockstep
+        long initialDelay = random.nextInt((int) Math.max(1, periodMicros));
+        inputTask = channel.eventLoop().scheduleAtFixedRate(this::sendInput, initialDelay, periodMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private void sendInput() {
+        if (!inMatch) {
+            return;
+        }
+        // Hold an intent for a random number of inputs, like a player holding keys
+        if (--intentTicks <= 0) {
+            intentTicks = 5 + random.nextInt(20);
+            moveUp = random.nextDouble() < 0.7;
+            int turn = random.nextInt(3);
+            rotateLeft = turn == 1;
+            rotateRight = turn == 2;
+            shoot = random.nextDouble() < 0.4;
+        }
+        seq++;
+        sentAt[(int) (seq % SENT_HISTORY)] = System.nanoTime();
+        send("{\"type\":\"INPUT\",\"data\":{\"seq\":" + seq + ",\"viewTick\":" + viewTick
+                + ",\"moveUp\":" + moveUp + ",\"moveDown\":false,\"moveLeft\":false,\"moveRight\":false"
+                + ",\"rotateLeft\":" + rotateLeft + ",\"rotateRight\":" + rotateRight
+                + ",\"shoot\":" + shoot + "}}");
+        stats.inputsSent.increment();
+    }
+
+    private void onText(String text, int bytes) throws Exception {
+        stats.payloadBytes.add(bytes);
+        JsonNode message = objectMapper.readTree(text);
+        String type = message.path("type").asText();
+        JsonNode data = message.path("data");
+        switch (type) {
+            case "PLAYER_INFO" -> onPlayerInfo(data);
+            case "GAME_STATE" -> onGameState(data);
+            case "EVENT" -> onEvent(data);
+            default -> { }
+        }
+    }
+
+    private void onPlayerInfo(JsonNode info) {
+        shipId = info.path("shipId").asInt(-1);
+        long periodMillis = config.tickPeriodMillis > 0 ? config.tickPeriodMillis
+                : info.path("snapshotPeriodMs").asLong(DEFAULT_SNAPSHOT_PERIOD_MS);
+        snapshotPeriodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        JsonNode fields = info.path("snapshot").path("shipFields");
+        shipStride = fields.size();
+        seqField = -1;
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).asText().equals("lastInputSeq")) {
+                seqField = i;
+            }
+        }
+    }
+
+    private void onGameState(JsonNode state) {
+        long now = System.nanoTime();
+        stats.snapshots.increment();
+        if (!inMatch) {
+            inMatch = true;
+            stats.inMatch.incrementAndGet();
+        } else if (lastSnapshotNanos != 0) {
+            long delta = now - lastSnapshotNanos;
+            stats.interArrival.record(delta, TimeUnit.NANOSECONDS);
+            stats.jitter.record(Math.abs(delta - snapshotPeriodNanos), TimeUnit.NANOSECONDS);
+        }
+        lastSnapshotNanos = now;
+        viewTick = state.path("tick").asLong(0);
+
+        if (shipId >= 0 && seqField >= 0) {
+            long acked = 0;
+            JsonNode ships = state.path("ships");
+            for (int i = 0; i + shipStride <= ships.size(); i += shipStride) {
+                if (ships.get(i).asInt() == shipId) {
+                    acked = ships.get(i + seqField).asLong(0);
+                    break;
+                }
+            }
+            // Older entries of the ring have been overwritten
+            if (acked > lastAckedSeq && seq - acked < SENT_HISTORY) {
+                stats.inputLatency.record(now - sentAt[(int) (acked % SENT_HISTORY)], TimeUnit.NANOSECONDS);
+            }
+            lastAckedSeq = Math.max(lastAckedSeq, acked);
+        }
+    }
+
+    private void onEvent(JsonNode event) {
+        if ("GAME_OVER".equals(event.path("event").asText())) {
+            leaveMatch();
+            onGameOver.accept(this);
+        }
+    }
+
+    private void leaveMatch() {
+        if (inMatch) {
+            inMatch = false;
+            stats.inMatch.decrementAndGet();
+        }
+        lastSnapshotNanos = 0;
+        lastAckedSeq = seq;
+        viewTick = 0;
+    }
+
+    /**
+     * Counts bytes as they come off the socket, before inflate and WebSocket framing.
+     */
+    private class WireCounter extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof ByteBuf buf) {
+                stats.wireBytes.add(buf.readableBytes());
+            }
+            super.channelRead(ctx, msg);
+        }
+    }
+
+    private class BotHandler extends SimpleChannelInboundHandler<TextWebSocketFrame> {
+        private final CompletableFuture<BotClient> ready;
+        private boolean handshakeComplete;
+
+        BotHandler(CompletableFuture<BotClient> ready) {
+            this.ready = ready;
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt == WebSocketClientProtocolHandler.ClientHandshakeStateEvent.HANDSHAKE_COMPLETE) {
+                handshakeComplete = true;
+                stats.connected.incrementAndGet();
+                // Registers the session; the server takes the username from the token
+                send("{\"type\":\"LOGIN\",\"data\":{\"username\":\"" + username + "\"}}");
+                startInputs();
+                ready.complete(BotClient.this);
+            }
+            super.userEventTriggered(ctx, evt);
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, TextWebSocketFrame frame) throws Exception {
+            onText(frame.text(), frame.content().readableBytes());
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (handshakeComplete) {
+                stats.connected.decrementAndGet();
+            }
+            leaveMatch();
+            if (inputTask != null) {
+                inputTask.cancel(false);
+            }
+            ready.completeExceptionally(new IllegalStateException(username + ": connection closed before handshake"));
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            stats.errors.increment();
+            ready.completeExceptionally(cause);
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bots that play together: the first one hosts a lobby through the REST API, the others join
+ * and ready up, and the host starts the match. A new round starts when the match ends.
+ */
+class BotGroup {
+    // LOGIN on the WebSocket and the REST calls race; the host must be registered before it can create a lobby
+    private static final long FIRST_ROUND_DELAY_MS = 500;
+    private static final long NEXT_ROUND_DELAY_MS = 1000;
+    private static final long RETRY_DELAY_MS = 5000;
+
+    private final int index;
+    private final List<BotClient> bots;
+    private final ApiClient api;
+    private final LoadStats stats;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean roundPending = new AtomicBoolean();
+    private volatile boolean stopped;
+
+    BotGroup(int index, List<BotClient> bots, ApiClient api, LoadStats stats, ScheduledExecutorService scheduler) {
+        this.index = index;
+        this.bots = bots;
+        this.api = api;
+        this.stats = stats;
+        this.scheduler = scheduler;
+        bots.get(0).onGameOver(bot -> scheduleRound(NEXT_ROUND_DELAY_MS));
+    }
+
+    void start() {
+        scheduleRound(FIRST_ROUND_DELAY_MS);
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    private void scheduleRound(long delayMs) {
+        if (!stopped && roundPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::runRound, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runRound() {
+        roundPending.set(false);
+        if (stopped) {
+            return;
+        }
+        BotClient host = bots.get(0);
+        try {
+            String lobbyId = api.createLobby(host.getToken(), "load-" + index);
+            for (BotClient bot : bots.subList(1, bots.size())) {
+                api.joinLobby(bot.getToken(), lobbyId);
+                api.toggleReady(bot.getToken(), lobbyId);
+            }
+            api.startLobby(host.getToken(), lobbyId);
+            stats.matchesStarted.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            stats.errors.increment();
+            System.err.println("Group " + index + " could not start a match: " + e.getMessage());
+            scheduleRound(RETRY_DELAY_MS);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package org.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless load generator: logs in N bots over REST, connects them to the Netty WebSocket server
+ * with their session tokens, plays matches with randomized input, and reports snapshot jitter,
+ * input latency and bytes per client, plus server CPU and tick time from the actuator.
+ *
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.profiles=loadtest
+ * mvn -Ploadtest verify -Dloadtest.args="clients=2000 inputRate=30 duration=120"
+ * </pre>
+ */
+public class LoadGenerator {
+    private static final int LOGIN_PARALLELISM = 16;
+
+    private final LoadTestConfig config;
+    private final LoadStats stats = new LoadStats();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ApiClient api;
+    private final List<BotClient> bots = new ArrayList<>();
+    private final List<BotGroup> groups = new ArrayList<>();
+
+    // Server-side samples taken at each report once the ramp-up is done
+    private double cpuUsageSum;
+    private int cpuSamples;
+    private double cpuCount;
+    private double lastTickCount;
+    private double lastTickTotal;
+    private Double tickMeanMs;
+    private Double tickMaxMs;
+
+    // Client counters at the previous report
+    private long lastSnapshots, lastInputs, lastWire, lastPayload;
+    private long lastReportNanos;
+
+    LoadGenerator(LoadTestConfig config) {
+        this.config = config;
+        this.api = new ApiClient(config.httpUrl);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        System.out.println("Load test: " + config);
+        new LoadGenerator(config).run();
+    }
+
+    void run() throws Exception {
+        EventLoopGroup group = new NioEventLoopGroup();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(8);
+        ExecutorService logins = Executors.newFixedThreadPool(LOGIN_PARALLELISM);
+        try {
+            long start = System.nanoTime();
+            scheduler.scheduleAtFixedRate(() -> report(start), config.reportSeconds, config.reportSeconds, TimeUnit.SECONDS);
+
+            connectAll(group, scheduler, logins);
+            System.out.printf("Ramp-up done in %.1fs: %d connected%n", (System.nanoTime() - start) / 1e9, stats.connected.get());
+
+            // Measure steady state only
+            resetServerSamples();
+            TimeUnit.SECONDS.sleep(config.durationSeconds);
+
+            groups.forEach(BotGroup::stop);
+            scheduler.shutdownNow();
+            writeSummary((System.nanoTime() - start) / 1e9);
+        } finally {
+            bots.forEach(BotClient::close);
+            logins.shutdownNow();
+            scheduler.shutdownNow();
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    private void connectAll(EventLoopGroup group, ScheduledExecutorService scheduler, ExecutorService logins) throws Exception {
+        List<CompletableFuture<String>> tokens = new ArrayList<>(config.clients);
+        for (int i = 0; i < config.clients; i++) {
+            String username = config.userPrefix + "-" + i;
+            tokens.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return api.registerAndLogin(username, config.password);
+                } catch (Exception e) {
+                    throw new IllegalStateException(username + ": " + e.getMessage(), e);
+                }
+            }, logins));
+        }
+
+        long pauseNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, config.rampPerSecond);
+        List<CompletableFuture<BotClient>> members = new ArrayList<>();
+        List<CompletableFuture<BotClient>> all = new ArrayList<>();
+        for (int i = 0; i < config.clients; i++) {
+            BotClient bot = new BotClient(config.userPrefix + "-" + i, config, stats, objectMapper, i);
+            bots.add(bot);
+            CompletableFuture<BotClient> ready;
+            try {
+                ready = bot.connect(group, tokens.get(i).get());
+            } catch (Exception e) {
+                stats.errors.increment();
+                System.err.println("Login failed: " + e.getMessage());
+                ready = CompletableFuture.failedFuture(e);
+            }
+            all.add(ready);
+            TimeUnit.NANOSECONDS.sleep(pauseNanos);
+
+            if (config.mode.equals("default")) {
+                bot.onGameOver(b -> scheduler.schedule(b::sendStart, 1, TimeUnit.SECONDS));
+                ready.thenAccept(BotClient::sendStart);
+                continue;
+            }
+            members.add(ready);
+            if (members.size() == config.roomSize || i == config.clients - 1) {
+                startGroupWhenReady(List.copyOf(members), scheduler);
+                members.clear();
+            }
+        }
+        // Let stragglers finish their handshake before measuring
+        CompletableFuture.allOf(all.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .get(60, TimeUnit.SECONDS);
+    }
+
+    private void startGroupWhenReady(List<CompletableFuture<BotClient>> members, ScheduledExecutorService scheduler) {
+        CompletableFuture.allOf(members.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            if (error != null) {
+                stats.errors.increment();
+                System.err.println("Group not started, a bot failed to connect: " + error.getMessage());
+                return;
+            }
+            List<BotClient> clients = members.stream().map(CompletableFuture::join).toList();
+            BotGroup botGroup;
+            synchronized (groups) {
+                botGroup = new BotGroup(groups.size(), clients, api, stats, scheduler);
+                groups.add(botGroup);
+            }
+            botGroup.start();
+        });
+    }
+
+    private String anyToken() {
+        for (BotClient bot : bots) {
+            if (bot.getToken() != null) {
+                return bot.getToken();
+            }
+        }
+        return null;
+    }
+
+    private void resetServerSamples() {
+        cpuUsageSum = 0;
+        cpuSamples = 0;
+        sampleTick(true);
+    }
+
+    private void sampleServer() {
+        String token = anyToken();
+        Double cpu = measurement(api.metric(token, "process.cpu.usage"), "VALUE");
+        Double cores = measurement(api.metric(token, "system.cpu.count"), "VALUE");
+        if (cpu != null && cores != null) {
+            cpuUsageSum += cpu;
+            cpuSamples++;
+            cpuCount = cores;
+        }
+        sampleTick(false);
+    }
+
+    private void sampleTick(boolean baselineOnly) {
+        JsonNode tick = api.metric(anyToken(), "game.tick.duration");
+        Double count = measurement(tick, "COUNT");
+        Double total = measurement(tick, "TOTAL_TIME");
+        if (count == null || total == null) {
+            return;
+        }
+        if (!baselineOnly && count > lastTickCount) {
+            tickMeanMs = (total - lastTickTotal) / (count - lastTickCount) * 1000;
+            tickMaxMs = measurement(tick, "MAX") * 1000;
+        }
+        lastTickCount = count;
+        lastTickTotal = total;
+    }
+
+    private static Double measurement(JsonNode metric, String statistic) {
+        if (metric == null) {
+            return null;
+        }
+        for (JsonNode m : metric.path("measurements")) {
+            if (statistic.equals(m.path("statistic").asText())) {
+                return m.path("value").asDouble();
+            }
+        }
+        return null;
+    }
+
+    private synchronized void report(long start) {
+        try {
+            long now = System.nanoTime();
+            double seconds = (now - (lastReportNanos == 0 ? start : lastReportNanos)) / 1e9;
+            lastReportNanos = now;
+            long snapshots = stats.snapshots.sum(), inputs = stats.inputsSent.sum();
+            long wire = stats.wireBytes.sum(), payload = stats.payloadBytes.sum();
+            int connected = Math.max(1, stats.connected.get());
+
+            sampleServer();
+            System.out.printf("[%4.0fs] connected=%d inMatch=%d matches=%d snapshots/s=%.0f inputs/s=%.0f "
+                            + "wire=%.1fKB/s/client payload=%.1fKB/s/client interarrival.p99=%.1fms jitter.p99=%.1fms "
+                            + "latency.p50=%.1fms latency.p99=%.1fms serverCpu=%s tick.mean=%s errors=%d%n",
+                    (now - start) / 1e9, stats.connected.get(), stats.inMatch.get(), stats.matchesStarted.sum(),
+                    (snapshots - lastSnapshots) / seconds, (inputs - lastInputs) / seconds,
+                    (wire - lastWire) / seconds / connected / 1024, (payload - lastPayload) / seconds / connected / 1024,
+                    percentile(stats.interArrival, 0.99), percentile(stats.jitter, 0.99),
+                    percentile(stats.inputLatency, 0.5), percentile(stats.inputLatency, 0.99),
+                    cpuSamples == 0 ? "n/a" : String.format("%.0f%%", 100 * cpuUsageSum / cpuSamples),
+                    tickMeanMs == null ? "n/a" : String.format("%.2fms", tickMeanMs), stats.errors.sum());
+            lastSnapshots = snapshots;
+            lastInputs = inputs;
+            lastWire = wire;
+            lastPayload = payload;
+        } catch (Exception e) {
+            System.err.println("Report failed: " + e.getMessage());
+        }
+    }
+
+    private static double percentile(Timer timer, double percentile) {
+        for (var value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private void writeSummary(double elapsedSeconds) throws Exception {
+        sampleServer();
+        int connected = stats.connected.get();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("config", config.toString());
+        summary.put("elapsedSeconds", elapsedSeconds);
+        summary.put("connected", connected);
+        summary.put("matchesStarted", stats.matchesStarted.sum());
+        summary.put("errors", stats.errors.sum());
+        summary.put("snapshotInterArrival", LoadStats.summarize(stats.interArrival));
+        summary.put("snapshotJitter", LoadStats.summarize(stats.jitter));
+        summary.put("inputLatency", LoadStats.summarize(stats.inputLatency));
+        summary.put("wireBytesPerClient", connected == 0 ? 0 : stats.wireBytes.sum() / connected);
+        summary.put("payloadBytesPerClient", connected == 0 ? 0 : stats.payloadBytes.sum() / connected);
+        if (cpuSamples > 0) {
+            double cpuUsage = cpuUsageSum / cpuSamples;
+            double coresBusy = cpuUsage * cpuCount;
+            summary.put("serverCpuUsage", cpuUsage);
+            summary.put("serverCores", cpuCount);
+            summary.put("serverCoresBusy", coresBusy);
+            // Capacity estimate, assuming CPU scales linearly with clients
+            summary.put("clientsPerBusyCore", coresBusy == 0 ? null : connected / coresBusy);
+        }
+        summary.put("serverTickMeanMs", tickMeanMs);
+        summary.put("serverTickMaxMs", tickMaxMs);
+
+        ObjectMapper pretty = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        File out = new File(config.resultFile);
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        pretty.writeValue(out, summary);
+        System.out.println(pretty.writeValueAsString(summary));
+        System.out.println("Summary written to " + out.getPath());
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.loadtest;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side measurements shared by all bots.
+ */
+class LoadStats {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Time between consecutive GAME_STATE frames on one connection
+    final Timer interArrival = timer("snapshot.interarrival");
+    // |inter-arrival - tick period|
+    final Timer jitter = timer("snapshot.jitter");
+    // INPUT sent until a snapshot echoes its sequence number (lastInputSeq of the bot's ship)
+    final Timer inputLatency = timer("input.latency");
+
+    final AtomicInteger connected = new AtomicInteger();
+    final AtomicInteger inMatch = new AtomicInteger();
+    final LongAdder snapshots = new LongAdder();
+    final LongAdder wireBytes = new LongAdder();
+    final LongAdder payloadBytes = new LongAdder();
+    final LongAdder inputsSent = new LongAdder();
+    final LongAdder matchesStarted = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    private Timer timer(String name) {
+        return Timer.builder(name)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .distributionStatisticExpiry(Duration.ofMinutes(10))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+    }
+
+    static Map<String, Double> summarize(Timer timer) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        var snapshot = timer.takeSnapshot();
+        out.put("count", (double) snapshot.count());
+        out.put("mean_ms", snapshot.mean(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile p : snapshot.percentileValues()) {
+            out.put("p" + formatPercentile(p.percentile()) + "_ms", p.value(TimeUnit.MILLISECONDS));
+        }
+        out.put("max_ms", snapshot.max(TimeUnit.MILLISECONDS));
+        return out;
+    }
+
+    private static String formatPercentile(double p) {
+        String s = Double.toString(p * 100);
+        return s.endsWith(".0") ? s.substring(0, s.length() - 2) : s.replace(".", "");
+    }
+}
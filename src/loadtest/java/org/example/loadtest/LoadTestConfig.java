@@ -0,0 +1,62 @@
+package org.example.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load generator settings, given as key=value program arguments.
+ */
+public class LoadTestConfig {
+    final String httpUrl;
+    final String wsUrl;
+    final int clients;
+    final int roomSize;
+    final String mode;
+    final double inputRate;
+    final int durationSeconds;
+    final int rampPerSecond;
+    final int reportSeconds;
+    final long tickPeriodMillis;
+    final boolean compression;
+    final String userPrefix;
+    final String password;
+    final String resultFile;
+
+    LoadTestConfig(Map<String, String> args) {
+        this.httpUrl = args.getOrDefault("http", "http://localhost:8080");
+        this.wsUrl = args.getOrDefault("ws", "ws://localhost:8081/ws");
+        this.clients = Integer.parseInt(args.getOrDefault("clients", "1000"));
+        // Lobbies hold at most 4 players
+        this.roomSize = Integer.parseInt(args.getOrDefault("roomSize", "4"));
+        // "lobby": REST lobby per group of roomSize bots; "default": everyone sends START into the shared room
+        this.mode = args.getOrDefault("mode", "lobby");
+        this.inputRate = Double.parseDouble(args.getOrDefault("inputRate", "30"));
+        this.durationSeconds = Integer.parseInt(args.getOrDefault("duration", "120"));
+        this.rampPerSecond = Integer.parseInt(args.getOrDefault("ramp", "200"));
+        this.reportSeconds = Integer.parseInt(args.getOrDefault("report", "10"));
+        // Expected snapshot period for the jitter metric; 0 takes the period each room reports in PLAYER_INFO
+        this.tickPeriodMillis = Long.parseLong(args.getOrDefault("tickPeriodMs", "0"));
+        this.compression = Boolean.parseBoolean(args.getOrDefault("compression", "true"));
+        this.userPrefix = args.getOrDefault("userPrefix", "bot");
+        this.password = args.getOrDefault("password", "loadtest");
+        this.resultFile = args.getOrDefault("result", "target/loadtest-result.json");
+    }
+
+    static LoadTestConfig parse(String[] argv) {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            args.put(arg.substring(0, eq).replaceFirst("^--", ""), arg.substring(eq + 1));
+        }
+        return new LoadTestConfig(args);
+    }
+
+    @Override
+    public String toString() {
+        return "clients=" + clients + " mode=" + mode + " roomSize=" + roomSize + " inputRate=" + inputRate
+                + "/s duration=" + durationSeconds + "s compression=" + compression + " ws=" + wsUrl;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.config;
+
+import org.example.model.Arena;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Arena size of each lobby map, bound from "game.arena.*".
+ */
+@Component
+@ConfigurationProperties(prefix = "game.arena")
+public class ArenaProperties {
+    private Map<String, Size> maps = new LinkedHashMap<>();
+    // Used for rooms without a lobby and for maps not listed
+    private String defaultMap = "Desert";
+
+    public static class Size {
+        private int width = Arena.DEFAULT.width();
+        private int height = Arena.DEFAULT.height();
+
+        public int getWidth() { return width; }
+        public void setWidth(int width) { this.width = width; }
+
+        public int getHeight() { return height; }
+        public void setHeight(int height) { this.height = height; }
+    }
+
+    /**
+     * The arena of a map, falling back to the default map and then to {@link Arena#DEFAULT}.
+     */
+    public Arena arena(String map) {
+        Size size = map != null ? maps.get(map) : null;
+        if (size == null) {
+            size = maps.get(defaultMap);
+        }
+        return size != null ? new Arena(size.getWidth(), size.getHeight()) : Arena.DEFAULT;
+    }
+
+    public Map<String, Size> getMaps() { return maps; }
+    public void setMaps(Map<String, Size> maps) { this.maps = maps; }
+
+    public String getDefaultMap() { return defaultMap; }
+    public void setDefaultMap(String defaultMap) { this.defaultMap = defaultMap; }
+}
@@ -0,0 +1,58 @@
+package org.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transport settings for the Netty WebSocket server, bound from "netty.server.*".
+ */
+@Component
+@ConfigurationProperties(prefix = "netty.server")
+public class NettyServerProperties {
+    private int port = 8081;
+    // Use epoll when the native library loads on this platform, otherwise NIO
+    private boolean nativeTransport = true;
+    private int bossThreads = 1;
+    // 0 lets Netty pick its default (2 * available processors)
+    private int workerThreads = 0;
+    private int soBacklog = 1024;
+    private boolean tcpNoDelay = true;
+    private boolean soKeepAlive = true;
+    private boolean pooledAllocator = true;
+    private boolean preferDirect = true;
+    private int writeBufferLowWaterMark = 32 * 1024;
+    private int writeBufferHighWaterMark = 64 * 1024;
+
+    public int getPort() { return port; }
+    public void setPort(int port) { this.port = port; }
+
+    public boolean isNativeTransport() { return nativeTransport; }
+    public void setNativeTransport(boolean nativeTransport) { this.nativeTransport = nativeTransport; }
+
+    public int getBossThreads() { return bossThreads; }
+    public void setBossThreads(int bossThreads) { this.bossThreads = bossThreads; }
+
+    public int getWorkerThreads() { return workerThreads; }
+    public void setWorkerThreads(int workerThreads) { this.workerThreads = workerThreads; }
+
+    public int getSoBacklog() { return soBacklog; }
+    public void setSoBacklog(int soBacklog) { this.soBacklog = soBacklog; }
+
+    public boolean isTcpNoDelay() { return tcpNoDelay; }
+    public void setTcpNoDelay(boolean tcpNoDelay) { this.tcpNoDelay = tcpNoDelay; }
+
+    public boolean isSoKeepAlive() { return soKeepAlive; }
+    public void setSoKeepAlive(boolean soKeepAlive) { this.soKeepAlive = soKeepAlive; }
+
+    public boolean isPooledAllocator() { return pooledAllocator; }
+    public void setPooledAllocator(boolean pooledAllocator) { this.pooledAllocator = pooledAllocator; }
+
+    public boolean isPreferDirect() { return preferDirect; }
+    public void setPreferDirect(boolean preferDirect) { this.preferDirect = preferDirect; }
+
+    public int getWriteBufferLowWaterMark() { return writeBufferLowWaterMark; }
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) { this.writeBufferLowWaterMark = writeBufferLowWaterMark; }
+
+    public int getWriteBufferHighWaterMark() { return writeBufferHighWaterMark; }
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) { this.writeBufferHighWaterMark = writeBufferHighWaterMark; }
+}
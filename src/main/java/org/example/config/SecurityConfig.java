@@ -12,6 +12,10 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.example.service.SessionTokenService;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -20,6 +24,15 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Value("${auth.user-cache.max-size:1000}")
+    private int userCacheMaxSize;
+
+    @Value("${auth.user-cache.ttl-seconds:300}")
+    private long userCacheTtlSeconds;
+
     // 1. PASSWORD ENCODER - BCrypt for secure password hashing
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -37,6 +50,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/register", "/api/auth/login").permitAll()
                         .requestMatchers("/api/leaderboard/**").permitAll()
                         .requestMatchers("/ws/**").permitAll() // WebSocket endpoint
+                        .requestMatchers("/actuator/health").permitAll() // Health checks
+                        // Metrics carry per-room tags (room ids, player counts, latency); scrapers authenticate
+                        .requestMatchers("/actuator/**").authenticated()
 
                         // Protected endpoints (authentication required)
                         .requestMatchers("/api/lobbies/**").authenticated()
@@ -45,6 +61,9 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .httpBasic(httpBasic -> {}) // Enable HTTP Basic authentication
+                // Bearer session tokens from /api/auth/login skip BCrypt and the DB on every call
+                .addFilterBefore(new TokenAuthenticationFilter(sessionTokenService, userDetailsService, userCache()),
+                        BasicAuthenticationFilter.class)
                 .formLogin(form -> form.disable()) // Disable form login (we're using REST)
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(
@@ -64,6 +83,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserCache(userCache());
         return authProvider;
     }
 
@@ -73,4 +93,10 @@ public class SecurityConfig {
             AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
     }
+
+    // 5. USER CACHE - Bounded, TTL-evicting cache of loaded UserDetails
+    @Bean
+    public UserCache userCache() {
+        return new TtlUserCache(userCacheMaxSize, userCacheTtlSeconds * 1000);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package org.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.service.SessionTokenService;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Stateless authentication from an "Authorization: Bearer &lt;token&gt;" header.
+ * Requests without a bearer token fall through to HTTP Basic. An invalid or expired token leaves the request
+ * unauthenticated rather than rejecting it, so public endpoints such as login still work with a stale header;
+ * protected endpoints are then refused by the authentication entry point.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final SessionTokenService sessionTokenService;
+    private final UserDetailsService userDetailsService;
+    private final UserCache userCache;
+
+    public TokenAuthenticationFilter(SessionTokenService sessionTokenService,
+                                     UserDetailsService userDetailsService,
+                                     UserCache userCache) {
+        this.sessionTokenService = sessionTokenService;
+        this.userDetailsService = userDetailsService;
+        this.userCache = userCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String username = sessionTokenService.validateToken(header.substring(BEARER_PREFIX.length()).trim());
+        if (username == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        UserDetails user = userCache.getUserFromCache(username);
+        if (user == null) {
+            try {
+                user = userDetailsService.loadUserByUsername(username);
+            } catch (UsernameNotFoundException e) {
+                chain.doFilter(request, response);
+                return;
+            }
+            userCache.putUserInCache(user);
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.config;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, least-recently-used UserDetails cache whose entries expire after a fixed TTL.
+ *
+ * <p>Entries go in and come out as copies. The ProviderManager erases the credentials of the principal it
+ * authenticated, and without copies that would null the cached password hash, so every later HTTP Basic
+ * call would fail the password check against the cache and reload the user.
+ */
+public class TtlUserCache implements UserCache {
+
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    public TtlUserCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized UserDetails getUserFromCache(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            entries.remove(username);
+            return null;
+        }
+        return User.withUserDetails(entry.user).build();
+    }
+
+    @Override
+    public synchronized void putUserInCache(UserDetails user) {
+        UserDetails copy = User.withUserDetails(user).build();
+        entries.put(user.getUsername(), new Entry(copy, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @Override
+    public synchronized void removeUserFromCache(String username) {
+        entries.remove(username);
+    }
+
+    private record Entry(UserDetails user, long expiresAt) {
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * permessage-deflate settings for the WebSocket server, bound from "websocket.compression.*".
+ */
+@Component
+@ConfigurationProperties(prefix = "websocket.compression")
+public class WebSocketCompressionProperties {
+    private boolean enabled = true;
+    // zlib level, 0 (store) to 9 (best)
+    private int level = 6;
+    // Frames smaller than this are sent uncompressed
+    private int minFrameSize = 256;
+    // Without server context takeover every message is compressed independently,
+    // which lets a broadcast be compressed once and shared by all channels
+    private boolean serverContextTakeover = false;
+    private boolean clientContextTakeover = true;
+    private int clientWindowBits = 15;
+    private boolean sharedBroadcast = true;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getLevel() { return level; }
+    public void setLevel(int level) { this.level = level; }
+
+    public int getMinFrameSize() { return minFrameSize; }
+    public void setMinFrameSize(int minFrameSize) { this.minFrameSize = minFrameSize; }
+
+    public boolean isServerContextTakeover() { return serverContextTakeover; }
+    public void setServerContextTakeover(boolean serverContextTakeover) { this.serverContextTakeover = serverContextTakeover; }
+
+    public boolean isClientContextTakeover() { return clientContextTakeover; }
+    public void setClientContextTakeover(boolean clientContextTakeover) { this.clientContextTakeover = clientContextTakeover; }
+
+    public int getClientWindowBits() { return clientWindowBits; }
+    public void setClientWindowBits(int clientWindowBits) { this.clientWindowBits = clientWindowBits; }
+
+    public boolean isSharedBroadcast() { return sharedBroadcast; }
+    public void setSharedBroadcast(boolean sharedBroadcast) { this.sharedBroadcast = sharedBroadcast; }
+}
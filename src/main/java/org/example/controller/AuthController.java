@@ -2,6 +2,7 @@ package org.example.controller;
 
 import org.example.entity.PlayerEntity;
 import org.example.service.AuthenticationService;
+import org.example.service.SessionTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +18,9 @@ public class AuthController {
     @Autowired
     private AuthenticationService authenticationService;
 
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
     @PostMapping("/register")
     public ResponseEntity<Map<String, Object>> register(@RequestBody Map<String, String> request) {
         String username = request.get("username");
@@ -68,6 +72,9 @@ public class AuthController {
                 response.put("totalScore", player.getTotalScore());
                 response.put("wins", player.getWins());
                 response.put("gamesPlayed", player.getGamesPlayed());
+                // Send as "Authorization: Bearer <token>" instead of HTTP Basic on later calls
+                response.put("token", sessionTokenService.issueToken(username));
+                response.put("expiresIn", sessionTokenService.getTtlMillis() / 1000);
                 return ResponseEntity.ok(response);
             }
         }
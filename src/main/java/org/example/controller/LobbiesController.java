@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.model.Lobby;
 import org.example.model.LobbyEntry;
 import org.example.server.ConnectionManager;
+import org.example.server.PlayerSession;
 import org.example.service.GameService;
 import org.example.service.LobbiesService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -70,13 +72,15 @@ public class LobbiesController {
             throw new IllegalStateException("All players must be ready before starting the game");
         }
 
-        // Add all lobby players to the game (pass lobbyId so game can destroy lobby when finished)
+        // Start one match for all connected lobby players (lobbyId lets the game destroy the lobby when finished)
+        List<PlayerSession> players = new ArrayList<>();
         lobby.getEntries().forEach(entry -> {
-            String sessionId = connectionManager.getSessionIdByUsername(entry.getUsername());
-            if (sessionId != null) {
-                gameService.addPlayerToGame(sessionId, entry.getUsername(), connectionManager.getChannel(sessionId), lobbyId);
+            PlayerSession session = connectionManager.getSessionByUsername(entry.getUsername());
+            if (session != null) {
+                players.add(session);
             }
         });
+        gameService.startMatch(lobbyId, players);
 
         // Notify all lobby members that the game has started
         Map<String, Object> message = new HashMap<>();
@@ -123,12 +127,14 @@ public class LobbiesController {
 
         ObjectMapper mapper = new ObjectMapper();
         // Send only to players in this lobby
+        List<PlayerSession> members = new ArrayList<>();
         lobby.getEntries().forEach(entry -> {
-            String sessionId = connectionManager.getSessionIdByUsername(entry.getUsername());
-            if (sessionId != null) {
-                connectionManager.sendToSession(sessionId, payload, mapper);
+            PlayerSession session = connectionManager.getSessionByUsername(entry.getUsername());
+            if (session != null) {
+                members.add(session);
             }
         });
+        connectionManager.sendToSessions(members, payload, mapper);
     }
 
     @PostMapping("/{lobbyId}/ready/toggle")
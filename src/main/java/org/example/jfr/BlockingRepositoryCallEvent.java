@@ -0,0 +1,25 @@
+package org.example.jfr;
+
+import io.netty.util.concurrent.FastThreadLocalThread;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A repository call made on a Netty I/O thread. Every such call stalls all channels of that event loop,
+ * so the stack trace is kept to find the caller.
+ */
+@Name("org.example.BlockingRepositoryCall")
+@Label("Blocking Repository Call")
+@Category({"SpaceBoot", "Persistence"})
+@Description("Repository call made from a Netty event loop thread")
+public class BlockingRepositoryCallEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    public static boolean onEventLoop() {
+        return Thread.currentThread() instanceof FastThreadLocalThread;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.Broadcast")
+@Label("Broadcast")
+@Category({"SpaceBoot", "Network"})
+@Description("Fan-out of one encoded payload to a set of channels")
+@Enabled(false)
+@StackTrace(false)
+public class BroadcastEvent extends Event {
+    @Label("Channels")
+    public int channels;
+
+    @Label("Payload Bytes")
+    @DataAmount
+    public int payloadBytes;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+
+    @Label("Shared Compression")
+    public boolean sharedCompression;
+}
@@ -0,0 +1,41 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.CollisionCheck")
+@Label("Collision Check")
+@Category({"SpaceBoot", "Game"})
+@Description("Bullet against ship collision pass for one room")
+@Enabled(false)
+@StackTrace(false)
+public class CollisionCheckEvent extends Event {
+    @Label("Room")
+    public String room;
+
+    @Label("Ships")
+    public int ships;
+
+    @Label("Bullets")
+    public int bullets;
+
+    @Label("Candidate Pairs")
+    @Description("Bullet/ship pairs the grid broad phase passed to the swept test")
+    public int candidates;
+
+    @Label("Hits")
+    public int hits;
+
+    @Label("Rewound Checks")
+    @Description("Bullet/ship pairs tested against a historical ship position")
+    public int rewoundChecks;
+
+    @Label("Regions")
+    @Description("Regions the bullets were split into for parallel scanning; 1 when the pass ran on the room's thread")
+    public int regions;
+}
@@ -0,0 +1,32 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One room's simulation step plus its snapshot broadcast.
+ */
+@Name("org.example.GameTick")
+@Label("Game Tick")
+@Category({"SpaceBoot", "Game"})
+@Description("Simulation and snapshot broadcast of one room for one tick")
+@Enabled(false)
+@StackTrace(false)
+public class GameTickEvent extends Event {
+    @Label("Room")
+    public String room;
+
+    @Label("Tick")
+    public long tick;
+
+    @Label("Ships")
+    public int ships;
+
+    @Label("Bullets")
+    public int bullets;
+}
@@ -0,0 +1,25 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.SnapshotEncode")
+@Label("Snapshot Encode")
+@Category({"SpaceBoot", "Network"})
+@Description("JSON serialization of an outbound message into a shared buffer")
+@Enabled(false)
+@StackTrace(false)
+public class SnapshotEncodeEvent extends Event {
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Bytes")
+    @DataAmount
+    public int bytes;
+}
@@ -0,0 +1,24 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.StatsFlush")
+@Label("Stats Flush")
+@Category({"SpaceBoot", "Persistence"})
+@Description("Persisting one player's game result and re-broadcasting the leaderboard")
+@StackTrace(false)
+public class StatsFlushEvent extends Event {
+    @Label("Username")
+    public String username;
+
+    @Label("Score")
+    public int score;
+
+    @Label("Won")
+    public boolean won;
+}
@@ -0,0 +1,99 @@
+package org.example.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary layout of the match journal.
+ *
+ * <p>A segment file starts with {@link #MAGIC}, {@link #VERSION}, the writer's run id (8 bytes) and the
+ * segment index (4 bytes), followed by records. Each record is {@code varint length, type, varint room handle,
+ * payload}; a zero length ends the segment. Room handles are unique within one run and resolve to a
+ * {@link #MATCH_START} record written earlier in the same run.
+ *
+ * <pre>
+ * MATCH_START  roomId:string seed:int64 startedAtMillis:varlong stepMs:varint maxRewindTicks:varint
+ *              width:varint height:varint
+ * SPAWN        tick:varlong playerId:string            (player index = join order within the match)
+ * SPAWN_ALL    tick:varlong count:varint playerId:string...
+ * REMOVE       tick:varlong player:varint
+ * STEP         tick:varlong count:varint (player:varint keys:byte seq:varlong viewLag:varint)...
+ * IDLE         tick:varlong steps:varint               (steps without inputs, run-length encoded)
+ * MATCH_END    tick:varlong complete:byte
+ * </pre>
+ */
+final class JournalFormat {
+    static final int MAGIC = 0x53424a31; // "SBJ1"
+    // 2: lag compensation (max rewind in MATCH_START, view lag per STEP input)
+    // 3: STEP inputs are held-key state, at most one per player per step
+    // 4: per-room step length in MATCH_START
+    // 5: per-room arena size in MATCH_START
+    // 6: headings resolved to 1/16 degree instead of whole degrees; older matches no longer replay the same
+    static final short VERSION = 6;
+    static final int HEADER_SIZE = 4 + 2 + 8 + 4;
+
+    static final byte MATCH_START = 1;
+    static final byte SPAWN = 2;
+    static final byte SPAWN_ALL = 3;
+    static final byte REMOVE = 4;
+    static final byte STEP = 5;
+    static final byte IDLE = 6;
+    static final byte MATCH_END = 7;
+
+    // Held-key bits of a STEP input
+    static final int MOVE_UP = 1;
+    static final int MOVE_DOWN = 1 << 1;
+    static final int MOVE_LEFT = 1 << 2;
+    static final int MOVE_RIGHT = 1 << 3;
+    static final int ROTATE_LEFT = 1 << 4;
+    static final int ROTATE_RIGHT = 1 << 5;
+    static final int SHOOT = 1 << 6;
+
+    private JournalFormat() {
+    }
+
+    static void putVarLong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer buf) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in journal");
+    }
+
+    static int getVarInt(ByteBuffer buf) {
+        return Math.toIntExact(getVarLong(buf));
+    }
+
+    static void putString(ByteBuffer buf, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(buf, bytes.length);
+        buf.put(bytes);
+    }
+
+    static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[getVarInt(buf)];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+}
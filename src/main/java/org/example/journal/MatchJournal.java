@@ -0,0 +1,357 @@
+package org.example.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.model.Arena;
+import org.example.model.PlayerInput;
+import org.example.simulation.GameSimulation;
+import org.example.simulation.SimulationRecorder;
+import org.example.simulation.TickInput;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Records every match as a compact binary input journal (see {@link JournalFormat}): the seed, joins,
+ * leaves and the merged input list of each step. Rooms encode records on the tick thread and hand them to
+ * a bounded queue; a background thread appends them to memory-mapped segment files that rotate by size.
+ * The tick never waits for disk: when the queue is full the record is dropped and the match marked incomplete.
+ * {@link MatchReplay} reads the segments back.
+ */
+@Component
+public class MatchJournal {
+    private static final long FORCE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Value("${game.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${game.journal.dir:journal}")
+    private String directory;
+
+    @Value("${game.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${game.journal.max-segments:32}")
+    private int maxSegments;
+
+    @Value("${game.journal.queue-capacity:65536}")
+    private int queueCapacity;
+
+    private final Counter bytesWritten;
+    private final Counter recordsDropped;
+    private final Counter segmentsRotated;
+
+    private final long runId = ThreadLocalRandom.current().nextLong();
+    private final String runName = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicInteger nextHandle = new AtomicInteger();
+    private BlockingQueue<byte[]> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Writer thread only
+    private Path journalDir;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private long lastForceNanos;
+
+    public MatchJournal(MeterRegistry registry) {
+        this.bytesWritten = Counter.builder("game.journal.bytes")
+                .description("Bytes appended to the match journal")
+                .baseUnit("bytes")
+                .register(registry);
+        this.recordsDropped = Counter.builder("game.journal.dropped")
+                .description("Journal records dropped because the writer fell behind")
+                .register(registry);
+        this.segmentsRotated = Counter.builder("game.journal.segments")
+                .description("Journal segment files opened")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journalDir = Paths.get(directory);
+        Files.createDirectories(journalDir);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "match-journal");
+        writer.setDaemon(true);
+        writer.start();
+        System.out.println("Match journal: " + journalDir.toAbsolutePath() + " (" + segmentSizeMb + " MB segments)");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * A recorder for a new room's simulation; call before anything is spawned.
+     */
+    public SimulationRecorder open(String roomId, long seed, Arena arena, long stepMs, int maxRewindTicks) {
+        if (!enabled) {
+            return SimulationRecorder.NONE;
+        }
+        return new RoomRecorder(nextHandle.getAndIncrement(), roomId, seed, arena, stepMs, maxRewindTicks);
+    }
+
+    private boolean offer(byte[] record) {
+        if (queue.offer(record)) {
+            return true;
+        }
+        recordsDropped.increment();
+        return false;
+    }
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                byte[] record = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    write(record);
+                }
+                if (segment != null && System.nanoTime() - lastForceNanos > FORCE_INTERVAL_NANOS) {
+                    segment.force();
+                    lastForceNanos = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Match journal stopped: " + e.getMessage());
+            enabled = false;
+        } finally {
+            if (segment != null) {
+                segment.force();
+            }
+        }
+    }
+
+    private void write(byte[] record) throws IOException {
+        int size = JournalFormat.varLongSize(record.length) + record.length;
+        // Keep one zero byte free as the end-of-segment marker
+        if (segment == null || segment.remaining() < size + 1) {
+            if (JournalFormat.HEADER_SIZE + size + 1 > segmentSizeMb * 1024L * 1024L) {
+                recordsDropped.increment();
+                return;
+            }
+            rotate();
+        }
+        JournalFormat.putVarLong(segment, record.length);
+        segment.put(record);
+        bytesWritten.increment(size);
+    }
+
+    private void rotate() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        Path file = journalDir.resolve(String.format("match-%s-%05d.sbj", runName, segmentIndex));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            long size = segmentSizeMb * 1024L * 1024L;
+            raf.setLength(size);
+            // The mapping stays valid after the file is closed
+            segment = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        segment.putInt(JournalFormat.MAGIC);
+        segment.putShort(JournalFormat.VERSION);
+        segment.putLong(runId);
+        segment.putInt(segmentIndex);
+        segmentIndex++;
+        segmentsRotated.increment();
+        deleteOldSegments();
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(journalDir)) {
+            segments = files.filter(f -> f.getFileName().toString().endsWith(".sbj")).sorted().toList();
+        }
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    /**
+     * Encodes one room's operations. Called under the simulation's lock, so never concurrently.
+     */
+    private class RoomRecorder implements SimulationRecorder {
+        private final int handle;
+        private final int maxRewindTicks;
+        // Player id -> index in join order; STEP and REMOVE refer to players by index
+        private final Map<String, Integer> roster = new HashMap<>();
+        private ByteBuffer buf = ByteBuffer.allocate(256);
+        private long idleFrom;
+        private int idleSteps;
+        private boolean complete = true;
+
+        RoomRecorder(int handle, String roomId, long seed, Arena arena, long stepMs, int maxRewindTicks) {
+            this.handle = handle;
+            this.maxRewindTicks = maxRewindTicks;
+            begin(JournalFormat.MATCH_START);
+            string(roomId);
+            ensure(8 + 10 + 5 + 5 + 5 + 5);
+            buf.putLong(seed);
+            JournalFormat.putVarLong(buf, System.currentTimeMillis());
+            JournalFormat.putVarLong(buf, stepMs);
+            JournalFormat.putVarLong(buf, maxRewindTicks);
+            JournalFormat.putVarLong(buf, arena.width());
+            JournalFormat.putVarLong(buf, arena.height());
+            emit();
+        }
+
+        @Override
+        public void spawned(long tick, String playerId) {
+            flushIdle();
+            begin(JournalFormat.SPAWN);
+            JournalFormat.putVarLong(buf, tick);
+            string(playerId);
+            roster.putIfAbsent(playerId, roster.size());
+            emit();
+        }
+
+        @Override
+        public void spawnedAll(long tick, List<String> playerIds) {
+            flushIdle();
+            begin(JournalFormat.SPAWN_ALL);
+            JournalFormat.putVarLong(buf, tick);
+            JournalFormat.putVarLong(buf, playerIds.size());
+            for (String playerId : playerIds) {
+                string(playerId);
+                roster.putIfAbsent(playerId, roster.size());
+            }
+            emit();
+        }
+
+        @Override
+        public void removed(long tick, String playerId) {
+            Integer index = roster.get(playerId);
+            if (index == null) {
+                return;
+            }
+            flushIdle();
+            begin(JournalFormat.REMOVE);
+            JournalFormat.putVarLong(buf, tick);
+            JournalFormat.putVarLong(buf, index);
+            emit();
+        }
+
+        @Override
+        public void stepped(long tick, List<TickInput> inputs) {
+            int known = 0;
+            for (TickInput input : inputs) {
+                if (roster.containsKey(input.playerId())) {
+                    known++;
+                }
+            }
+            // Inputs of players without a ship have no effect, so they aren't recorded
+            if (known == 0) {
+                if (idleSteps++ == 0) {
+                    idleFrom = tick;
+                }
+                return;
+            }
+            flushIdle();
+            begin(JournalFormat.STEP);
+            JournalFormat.putVarLong(buf, tick);
+            JournalFormat.putVarLong(buf, known);
+            for (TickInput input : inputs) {
+                Integer index = roster.get(input.playerId());
+                if (index == null) {
+                    continue;
+                }
+                ensure(5 + 1 + 10 + 5);
+                JournalFormat.putVarLong(buf, index);
+                buf.put((byte) keys(input.input()));
+                JournalFormat.putVarLong(buf, input.input().getSeq());
+                // Only the clamped lag matters to the simulation, and it is far smaller than the view tick
+                JournalFormat.putVarLong(buf, GameSimulation.viewLag(tick, input.input(), maxRewindTicks));
+            }
+            emit();
+        }
+
+        @Override
+        public void closed(long tick) {
+            flushIdle();
+            begin(JournalFormat.MATCH_END);
+            JournalFormat.putVarLong(buf, tick);
+            buf.put((byte) (complete ? 1 : 0));
+            emit();
+        }
+
+        private void flushIdle() {
+            if (idleSteps == 0) {
+                return;
+            }
+            begin(JournalFormat.IDLE);
+            JournalFormat.putVarLong(buf, idleFrom);
+            JournalFormat.putVarLong(buf, idleSteps);
+            idleSteps = 0;
+            emit();
+        }
+
+        private void begin(byte type) {
+            buf.clear();
+            ensure(1 + 5 + 20);
+            buf.put(type);
+            JournalFormat.putVarLong(buf, handle);
+        }
+
+        private void string(String value) {
+            ensure(5 + value.length() * 3);
+            JournalFormat.putString(buf, value);
+        }
+
+        private void ensure(int bytes) {
+            if (buf.remaining() < bytes) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + bytes));
+                buf.flip();
+                bigger.put(buf);
+                buf = bigger;
+            }
+        }
+
+        private void emit() {
+            if (!offer(Arrays.copyOf(buf.array(), buf.position()))) {
+                complete = false;
+            }
+        }
+    }
+
+    static int keys(PlayerInput input) {
+        int keys = 0;
+        if (input.isMoveUp()) keys |= JournalFormat.MOVE_UP;
+        if (input.isMoveDown()) keys |= JournalFormat.MOVE_DOWN;
+        if (input.isMoveLeft()) keys |= JournalFormat.MOVE_LEFT;
+        if (input.isMoveRight()) keys |= JournalFormat.MOVE_RIGHT;
+        if (input.isRotateLeft()) keys |= JournalFormat.ROTATE_LEFT;
+        if (input.isRotateRight()) keys |= JournalFormat.ROTATE_RIGHT;
+        if (input.isShoot()) keys |= JournalFormat.SHOOT;
+        return keys;
+    }
+}
@@ -0,0 +1,265 @@
+package org.example.journal;
+
+import org.example.model.Arena;
+import org.example.model.GameState;
+import org.example.model.PlayerInput;
+import org.example.simulation.GameSimulation;
+import org.example.simulation.SimulationRecorder;
+import org.example.simulation.TickInput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads match journals written by {@link MatchJournal} and re-runs them through {@link GameSimulation}
+ * as fast as the CPU allows. Offline use:
+ * <pre>
+ * java -cp app.jar -Dloader.main=org.example.journal.MatchReplay org.springframework.boot.loader.launch.PropertiesLauncher journal/
+ * </pre>
+ */
+public class MatchReplay {
+
+    /**
+     * One recorded operation, re-applied to a simulation in journal order.
+     */
+    public interface Operation {
+        long tick();
+
+        void apply(GameSimulation simulation);
+    }
+
+    public record Spawn(long tick, String playerId) implements Operation {
+        public void apply(GameSimulation simulation) { simulation.spawn(playerId); }
+    }
+
+    public record SpawnAll(long tick, List<String> playerIds) implements Operation {
+        public void apply(GameSimulation simulation) { simulation.spawnAll(playerIds); }
+    }
+
+    public record Remove(long tick, String playerId) implements Operation {
+        public void apply(GameSimulation simulation) { simulation.remove(playerId); }
+    }
+
+    public record Step(long tick, List<TickInput> inputs) implements Operation {
+        public void apply(GameSimulation simulation) { simulation.step(inputs); }
+    }
+
+    public record Idle(long tick, int steps) implements Operation {
+        public void apply(GameSimulation simulation) {
+            for (int i = 0; i < steps; i++) {
+                simulation.step(Collections.emptyList());
+            }
+        }
+    }
+
+    public static class Match {
+        private final String roomId;
+        private final long seed;
+        private final long startedAtMillis;
+        private final long stepMs;
+        private final int maxRewindTicks;
+        private final Arena arena;
+        private final List<Operation> operations = new ArrayList<>();
+        private final List<String> roster = new ArrayList<>();
+        private boolean ended;
+        private boolean complete;
+        private long endTick;
+
+        Match(String roomId, long seed, long startedAtMillis, long stepMs, int maxRewindTicks, Arena arena) {
+            this.roomId = roomId;
+            this.seed = seed;
+            this.startedAtMillis = startedAtMillis;
+            this.stepMs = stepMs;
+            this.maxRewindTicks = maxRewindTicks;
+            this.arena = arena;
+        }
+
+        public String getRoomId() { return roomId; }
+        public long getSeed() { return seed; }
+        public long getStartedAtMillis() { return startedAtMillis; }
+        public long getStepMs() { return stepMs; }
+        public int getMaxRewindTicks() { return maxRewindTicks; }
+        public Arena getArena() { return arena; }
+        public List<Operation> getOperations() { return operations; }
+        /** Whether the match ended and no record was dropped on the way to disk */
+        public boolean isComplete() { return ended && complete; }
+        public long getEndTick() { return endTick; }
+    }
+
+    private MatchReplay() {
+    }
+
+    /**
+     * Every match found in the segment files of a journal directory, in start order.
+     */
+    public static List<Match> read(Path directory) throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(f -> f.getFileName().toString().endsWith(".sbj")).sorted().toList();
+        }
+        Map<String, Match> matches = new LinkedHashMap<>();
+        for (Path segment : segments) {
+            readSegment(segment, matches);
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Re-runs a match from its seed and returns the final state.
+     *
+     * @param afterOperation called with the state after each operation, e.g. to compare against a live capture
+     */
+    public static GameState replay(Match match, Consumer<GameState> afterOperation) {
+        GameSimulation simulation = new GameSimulation(match.getRoomId(), match.getSeed(), match.getArena(),
+                match.getStepMs(), match.getMaxRewindTicks(), SimulationRecorder.NONE);
+        for (Operation operation : match.getOperations()) {
+            long tick = simulation.getState().getTick();
+            if (tick != operation.tick()) {
+                throw new IllegalStateException("Journal out of sync in room " + match.getRoomId()
+                        + ": expected tick " + operation.tick() + ", simulation is at " + tick);
+            }
+            operation.apply(simulation);
+            afterOperation.accept(simulation.getState());
+        }
+        return simulation.getState();
+    }
+
+    public static GameState replay(Match match) {
+        return replay(match, state -> { });
+    }
+
+    private static void readSegment(Path file, Map<String, Match> matches) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buf.remaining() < JournalFormat.HEADER_SIZE || buf.getInt() != JournalFormat.MAGIC) {
+            throw new IOException("Not a match journal segment: " + file);
+        }
+        short version = buf.getShort();
+        if (version != JournalFormat.VERSION) {
+            throw new IOException("Unsupported journal version " + version + " in " + file);
+        }
+        long runId = buf.getLong();
+        buf.getInt(); // segment index, implied by the file name order
+
+        while (buf.hasRemaining()) {
+            int length = JournalFormat.getVarInt(buf);
+            if (length == 0) {
+                break;
+            }
+            ByteBuffer record = buf.slice(buf.position(), length);
+            buf.position(buf.position() + length);
+            readRecord(record, runId, matches);
+        }
+    }
+
+    private static void readRecord(ByteBuffer record, long runId, Map<String, Match> matches) {
+        byte type = record.get();
+        String key = runId + "/" + JournalFormat.getVarInt(record);
+        if (type == JournalFormat.MATCH_START) {
+            String roomId = JournalFormat.getString(record);
+            long seed = record.getLong();
+            long startedAtMillis = JournalFormat.getVarLong(record);
+            long stepMs = JournalFormat.getVarLong(record);
+            int maxRewindTicks = JournalFormat.getVarInt(record);
+            Arena arena = new Arena(JournalFormat.getVarInt(record), JournalFormat.getVarInt(record));
+            matches.put(key, new Match(roomId, seed, startedAtMillis, stepMs, maxRewindTicks, arena));
+            return;
+        }
+        Match match = matches.get(key);
+        if (match == null) {
+            return; // Its start was in a segment that has been deleted
+        }
+        long tick = JournalFormat.getVarLong(record);
+        switch (type) {
+            case JournalFormat.SPAWN -> {
+                String playerId = JournalFormat.getString(record);
+                addToRoster(match, playerId);
+                match.operations.add(new Spawn(tick, playerId));
+            }
+            case JournalFormat.SPAWN_ALL -> {
+                int count = JournalFormat.getVarInt(record);
+                List<String> playerIds = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String playerId = JournalFormat.getString(record);
+                    addToRoster(match, playerId);
+                    playerIds.add(playerId);
+                }
+                match.operations.add(new SpawnAll(tick, playerIds));
+            }
+            case JournalFormat.REMOVE ->
+                    match.operations.add(new Remove(tick, match.roster.get(JournalFormat.getVarInt(record))));
+            case JournalFormat.STEP -> {
+                int count = JournalFormat.getVarInt(record);
+                List<TickInput> inputs = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String playerId = match.roster.get(JournalFormat.getVarInt(record));
+                    PlayerInput input = input(record.get());
+                    input.setSeq(JournalFormat.getVarLong(record));
+                    int viewLag = JournalFormat.getVarInt(record);
+                    if (viewLag > 0) {
+                        input.setViewTick(tick - viewLag);
+                    }
+                    inputs.add(new TickInput(playerId, input));
+                }
+                match.operations.add(new Step(tick, inputs));
+            }
+            case JournalFormat.IDLE -> match.operations.add(new Idle(tick, JournalFormat.getVarInt(record)));
+            case JournalFormat.MATCH_END -> {
+                match.ended = true;
+                match.endTick = tick;
+                match.complete = record.get() == 1;
+            }
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    private static void addToRoster(Match match, String playerId) {
+        if (!match.roster.contains(playerId)) {
+            match.roster.add(playerId);
+        }
+    }
+
+    private static PlayerInput input(int keys) {
+        PlayerInput input = new PlayerInput();
+        input.setMoveUp((keys & JournalFormat.MOVE_UP) != 0);
+        input.setMoveDown((keys & JournalFormat.MOVE_DOWN) != 0);
+        input.setMoveLeft((keys & JournalFormat.MOVE_LEFT) != 0);
+        input.setMoveRight((keys & JournalFormat.MOVE_RIGHT) != 0);
+        input.setRotateLeft((keys & JournalFormat.ROTATE_LEFT) != 0);
+        input.setRotateRight((keys & JournalFormat.ROTATE_RIGHT) != 0);
+        input.setShoot((keys & JournalFormat.SHOOT) != 0);
+        return input;
+    }
+
+    /**
+     * Replays every match of a journal directory and prints the outcome and replay speed.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "journal");
+        for (Match match : read(directory)) {
+            long start = System.nanoTime();
+            GameState state = replay(match);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double matchSeconds = state.getTick() * match.getStepMs() / 1000.0;
+            System.out.printf("%s seed=%d ticks=%d complete=%s winner=%s replayed in %.3fs (%.0fx real time)%n",
+                    match.getRoomId(), match.getSeed(), state.getTick(), match.isComplete(), state.getWinnerId(),
+                    seconds, seconds == 0 ? 0 : matchSeconds / seconds);
+        }
+    }
+}
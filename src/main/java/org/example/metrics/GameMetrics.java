@@ -0,0 +1,188 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.jfr.BlockingRepositoryCallEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Meters for the game server hot paths: room tick timing, outbound traffic per tick,
+ * inbound messages by type, world size and leaderboard persistence latency.
+ * Exposed at /actuator/prometheus.
+ */
+@Component
+public class GameMetrics {
+    private static final Set<String> KNOWN_MESSAGE_TYPES = Set.of("LOGIN", "JOIN", "START", "INPUT", "RESYNC");
+
+    private final MeterRegistry registry;
+    private final Timer tickDuration;
+    private final Counter tickOverruns;
+    private final DistributionSummary tickBytes;
+    private final DistributionSummary tickFrames;
+    private final Counter outboundBytes;
+    private final Counter outboundFrames;
+    private final Counter partialSnapshots;
+    private final Counter skippedSnapshots;
+    private final Map<String, Counter> inboundByType = new ConcurrentHashMap<>();
+    private final Map<String, Timer> dbTimers = new ConcurrentHashMap<>();
+
+    // Outbound traffic of the room tick running on this thread: {frames, bytes, 1 while a tick runs}. Only
+    // threads that tick rooms get an entry; writes outside a tick (lobby messages, PLAYER_INFO, writes from
+    // HTTP threads) only reach the totals.
+    private final ThreadLocal<long[]> pending = new ThreadLocal<>();
+
+    public GameMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.tickDuration = Timer.builder("game.tick.duration")
+                .description("Time to simulate and broadcast one room for one tick")
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(Duration.ofMillis(4), Duration.ofMillis(8), Duration.ofMillis(16), Duration.ofMillis(33))
+                .register(registry);
+        this.tickOverruns = Counter.builder("game.tick.overruns")
+                .description("Room ticks that took longer than the room's step period")
+                .register(registry);
+        this.tickBytes = DistributionSummary.builder("game.tick.bytes.sent")
+                .description("WebSocket payload bytes written per tick")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.tickFrames = DistributionSummary.builder("game.tick.frames.sent")
+                .description("WebSocket frames written per tick")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.outboundBytes = Counter.builder("websocket.outbound.bytes")
+                .baseUnit("bytes")
+                .register(registry);
+        this.outboundFrames = Counter.builder("websocket.outbound.frames")
+                .register(registry);
+        this.partialSnapshots = Counter.builder("game.snapshots.partial")
+                .description("Client snapshots cut down to the client's bandwidth budget")
+                .register(registry);
+        this.skippedSnapshots = Counter.builder("game.snapshots.skipped")
+                .description("Client snapshots skipped because the client's channel had not drained")
+                .register(registry);
+    }
+
+    public void recordOutbound(int frames, long bytes) {
+        if (frames == 0) {
+            return;
+        }
+        long[] counts = pending.get();
+        if (counts != null && counts[2] != 0) {
+            counts[0] += frames;
+            counts[1] += bytes;
+        }
+        outboundFrames.increment(frames);
+        outboundBytes.increment(bytes);
+    }
+
+    /**
+     * Opens a room tick on the calling thread; its writes count towards the tick until {@link #recordTick}.
+     */
+    public void beginTick() {
+        long[] counts = pending.get();
+        if (counts == null) {
+            counts = new long[3];
+            pending.set(counts);
+        }
+        counts[0] = 0;
+        counts[1] = 0;
+        counts[2] = 1;
+    }
+
+    /**
+     * Closes a room tick: records its duration, whether it overran its period, and the traffic the calling
+     * thread sent since {@link #beginTick}.
+     */
+    public void recordTick(long durationNanos, long periodNanos) {
+        tickDuration.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (durationNanos > periodNanos) {
+            tickOverruns.increment();
+        }
+        long[] counts = pending.get();
+        if (counts == null || counts[2] == 0) {
+            return;
+        }
+        tickFrames.record(counts[0]);
+        tickBytes.record(counts[1]);
+        counts[2] = 0;
+    }
+
+    public void recordPartialSnapshot() {
+        partialSnapshots.increment();
+    }
+
+    public void recordSkippedSnapshot() {
+        skippedSnapshots.increment();
+    }
+
+    public void recordInbound(String type) {
+        String tag = type != null && KNOWN_MESSAGE_TYPES.contains(type) ? type : "UNKNOWN";
+        inboundByType.computeIfAbsent(tag, t -> Counter.builder("websocket.messages.inbound")
+                .description("Inbound WebSocket messages by type")
+                .tag("type", t)
+                .register(registry)).increment();
+    }
+
+    /**
+     * Times a leaderboard / player repository operation. Calls made on a Netty event loop
+     * are also recorded as a JFR {@link BlockingRepositoryCallEvent}.
+     */
+    public <T> T timeDb(String operation, Supplier<T> call) {
+        Timer timer = dbTimers.computeIfAbsent(operation, op -> Timer.builder("game.db.latency")
+                .description("Player repository call latency")
+                .tag("operation", op)
+                .publishPercentileHistogram()
+                .register(registry));
+        if (!BlockingRepositoryCallEvent.onEventLoop()) {
+            return timer.record(call);
+        }
+        BlockingRepositoryCallEvent event = new BlockingRepositoryCallEvent();
+        event.begin();
+        try {
+            return timer.record(call);
+        } finally {
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Per-room input latency histograms, tagged with the room id until {@link #removeRoom} is called.
+     */
+    public RoomInputLatency roomInputLatency(String roomId) {
+        Timer apply = Timer.builder("game.input.apply.latency")
+                .description("Time from receiving an input to applying it to the ship")
+                .tag("room", roomId)
+                .publishPercentileHistogram()
+                .register(registry);
+        Timer snapshot = Timer.builder("game.input.snapshot.latency")
+                .description("Time from receiving an input to broadcasting the first snapshot that reflects it")
+                .tag("room", roomId)
+                .publishPercentileHistogram()
+                .register(registry);
+        return new RoomInputLatency(apply, snapshot);
+    }
+
+    public void removeRoom(RoomInputLatency latency) {
+        registry.remove(latency.getApplyLatency());
+        registry.remove(latency.getSnapshotLatency());
+    }
+
+    public <T> void gauge(String name, String description, T source, ToDoubleFunction<T> value) {
+        Gauge.builder(name, source, value).description(description).register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Input latency tracing for one room: receive-to-apply, and receive-to-first-snapshot that reflects the input.
+ */
+public class RoomInputLatency {
+    private final Timer applyLatency;
+    private final Timer snapshotLatency;
+    // Receive timestamps of inputs applied since the last snapshot
+    private final Queue<Long> awaitingSnapshot = new ConcurrentLinkedQueue<>();
+
+    RoomInputLatency(Timer applyLatency, Timer snapshotLatency) {
+        this.applyLatency = applyLatency;
+        this.snapshotLatency = snapshotLatency;
+    }
+
+    public void recordApplied(long receivedAtNanos) {
+        applyLatency.record(System.nanoTime() - receivedAtNanos, TimeUnit.NANOSECONDS);
+        awaitingSnapshot.add(receivedAtNanos);
+    }
+
+    /**
+     * Called when a snapshot is sent: every input applied since the previous snapshot is now visible to clients.
+     */
+    public void recordSnapshot() {
+        long now = System.nanoTime();
+        Long receivedAt;
+        while ((receivedAt = awaitingSnapshot.poll()) != null) {
+            snapshotLatency.record(now - receivedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    Timer getApplyLatency() { return applyLatency; }
+    Timer getSnapshotLatency() { return snapshotLatency; }
+}
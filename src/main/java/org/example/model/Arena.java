@@ -0,0 +1,20 @@
+package org.example.model;
+
+/**
+ * Size of a room's world. Ships are kept inside it and bullets that leave it are dropped.
+ */
+public record Arena(int width, int height) {
+    public static final Arena DEFAULT = new Arena(800, 600);
+    // Ships spawn at least this far from the walls, so an arena needs room for twice that
+    public static final int SPAWN_MARGIN = 100;
+
+    public Arena {
+        if (width < 2 * SPAWN_MARGIN || height < 2 * SPAWN_MARGIN) {
+            throw new IllegalArgumentException("Arena too small: " + width + "x" + height);
+        }
+    }
+
+    public boolean contains(double x, double y) {
+        return x >= 0 && x <= width && y >= 0 && y <= height;
+    }
+}
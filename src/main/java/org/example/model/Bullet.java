@@ -1,24 +1,32 @@
 package org.example.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.io.Serializable;
 
 public class Bullet implements Serializable {
     private static final long serialVersionUID = 1L;
     
-    private String id;
+    // Room-local, in firing order
+    private long id;
     private String shooterId;
+    // Entity id of the shooter's ship
+    private int shooterShipId;
     private double x;
     private double y;
     private double velocityX;
     private double velocityY;
     private boolean active;
+    // Ticks the shooter's view lagged behind the server when firing; hits are checked against ships that far back
+    @JsonIgnore
+    private int lagTicks;
     
     // Default constructor for Jackson
     public Bullet() {
         this.active = true;
     }
     
-    public Bullet(String id, String shooterId, double x, double y, double angle, double speed) {
+    public Bullet(long id, String shooterId, double x, double y, double angle, double speed) {
         this.id = id;
         this.shooterId = shooterId;
         this.x = x;
@@ -35,12 +43,15 @@ public class Bullet implements Serializable {
     }
     
     // Getters and Setters
-    public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
     
     public String getShooterId() { return shooterId; }
     public void setShooterId(String shooterId) { this.shooterId = shooterId; }
     
+    public int getShooterShipId() { return shooterShipId; }
+    public void setShooterShipId(int shooterShipId) { this.shooterShipId = shooterShipId; }
+    
     public double getX() { return x; }
     public void setX(double x) { this.x = x; }
     
@@ -55,5 +66,10 @@ public class Bullet implements Serializable {
     
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
+    
+    @JsonIgnore
+    public int getLagTicks() { return lagTicks; }
+    @JsonIgnore
+    public void setLagTicks(int lagTicks) { this.lagTicks = lagTicks; }
 }
 
@@ -1,8 +1,10 @@
 package org.example.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -12,28 +14,57 @@ public class GameState implements Serializable {
     private Map<String, Spaceship> spaceships;
     private List<Bullet> bullets;
     private long gameTime;
+    // Simulation tick this state reflects
+    private long tick;
     private boolean gameOver;
     private String winnerId;
     private String winnerUsername;
+    // Clients get the arena once with the room's rules rather than in every snapshot
+    @JsonIgnore
+    private final Arena arena;
     
     public GameState() {
-        this.spaceships = new HashMap<>();
+        this(Arena.DEFAULT);
+    }
+    
+    public GameState(Arena arena) {
+        this.arena = arena;
+        // Join order, so iteration (and therefore the simulation) doesn't depend on player ids
+        this.spaceships = new LinkedHashMap<>();
         this.bullets = new ArrayList<>();
         this.gameTime = 0;
         this.gameOver = false;
     }
     
     public void update(long deltaTime) {
+        advance(deltaTime);
+        removeSpentBullets();
+        moveBullets(0, bullets.size());
+    }
+    
+    /**
+     * Moves the clock one step forward; {@link #update} without touching bullets.
+     */
+    public void advance(long deltaTime) {
         this.gameTime += deltaTime;
-        
-        // Update bullets
-        bullets.removeIf(bullet -> {
-            bullet.update();
-            // Remove bullets that are out of bounds
-            return !bullet.isActive() || 
-                   bullet.getX() < 0 || bullet.getX() > 800 ||
-                   bullet.getY() < 0 || bullet.getY() > 600;
-        });
+        this.tick++;
+    }
+    
+    /**
+     * Drops bullets that hit something or left the arena. One that left the arena last step was still
+     * swept for hits along the way out.
+     */
+    public void removeSpentBullets() {
+        bullets.removeIf(bullet -> !bullet.isActive() || !arena.contains(bullet.getX(), bullet.getY()));
+    }
+    
+    /**
+     * Moves bullets [from, to) one step. Bullets move independently, so disjoint ranges may be moved in parallel.
+     */
+    public void moveBullets(int from, int to) {
+        for (int i = from; i < to; i++) {
+            bullets.get(i).update();
+        }
     }
     
     public void addSpaceship(Spaceship spaceship) {
@@ -53,6 +84,9 @@ public class GameState implements Serializable {
     }
     
     // Getters and Setters
+    @JsonIgnore
+    public Arena getArena() { return arena; }
+    
     public Map<String, Spaceship> getSpaceships() { return spaceships; }
     public void setSpaceships(Map<String, Spaceship> spaceships) { this.spaceships = spaceships; }
     
@@ -62,6 +96,9 @@ public class GameState implements Serializable {
     public long getGameTime() { return gameTime; }
     public void setGameTime(long gameTime) { this.gameTime = gameTime; }
     
+    public long getTick() { return tick; }
+    public void setTick(long tick) { this.tick = tick; }
+    
     public boolean isGameOver() { return gameOver; }
     public void setGameOver(boolean gameOver) { this.gameOver = gameOver; }
     
@@ -16,6 +16,10 @@ public class LobbyEntry {
         this.username = player.getUsername();
         this.totalScore = player.getTotalScore();
     }
+    public LobbyEntry(String username, int totalScore) {
+        this.username = username;
+        this.totalScore = totalScore;
+    }
     public String getUsername() {
         return this.username;
     }
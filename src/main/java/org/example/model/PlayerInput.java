@@ -1,5 +1,7 @@
 package org.example.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.io.Serializable;
 
 public class PlayerInput implements Serializable {
@@ -12,6 +14,13 @@ public class PlayerInput implements Serializable {
     private boolean rotateLeft;
     private boolean rotateRight;
     private boolean shoot;
+    // Client-assigned, increasing per connection; echoed back as Spaceship.lastInputSeq
+    private long seq;
+    // GameState.tick of the snapshot the client was showing; 0 when the client doesn't say
+    private long viewTick;
+    // Server receive time (System.nanoTime), for latency tracing only
+    @JsonIgnore
+    private transient long receivedAtNanos;
     
     public PlayerInput() {
         this.moveUp = false;
@@ -44,5 +53,14 @@ public class PlayerInput implements Serializable {
     
     public boolean isShoot() { return shoot; }
     public void setShoot(boolean shoot) { this.shoot = shoot; }
+    
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+    
+    public long getViewTick() { return viewTick; }
+    public void setViewTick(long viewTick) { this.viewTick = viewTick; }
+    
+    public long getReceivedAtNanos() { return receivedAtNanos; }
+    public void setReceivedAtNanos(long receivedAtNanos) { this.receivedAtNanos = receivedAtNanos; }
 }
 
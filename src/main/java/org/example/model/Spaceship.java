@@ -12,6 +12,13 @@ public class Spaceship implements Serializable {
     private int health;
     private int score;
     private boolean alive;
+    // Sequence number of the owner's last input applied to this ship
+    private long lastInputSeq;
+    // First tick at which the ship may fire again
+    private long nextShotTick;
+    // Room-local entity id in join order, assigned on spawn; snapshots and the roster refer to ships by it,
+    // and it is the ship's column in the room's position history
+    private int id;
     
     // Default constructor for Jackson
     public Spaceship() {
@@ -75,5 +82,14 @@ public class Spaceship implements Serializable {
     
     public boolean isAlive() { return alive; }
     public void setAlive(boolean alive) { this.alive = alive; }
+    
+    public long getLastInputSeq() { return lastInputSeq; }
+    public void setLastInputSeq(long lastInputSeq) { this.lastInputSeq = lastInputSeq; }
+    
+    public long getNextShotTick() { return nextShotTick; }
+    public void setNextShotTick(long nextShotTick) { this.nextShotTick = nextShotTick; }
+    
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
 }
 
@@ -1,108 +1,196 @@
 package org.example.server;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtension;
+import org.example.jfr.BroadcastEvent;
+import org.example.jfr.SnapshotEncodeEvent;
+import org.example.metrics.GameMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Registry of logged-in sessions. Channel to session goes through the {@link PlayerSession#KEY}
+ * channel attribute; the maps here only serve the reverse lookups and broadcasts.
+ */
 @Component
 public class ConnectionManager {
-    private final Map<String, Channel> sessionToChannel = new ConcurrentHashMap<>();
-    private final Map<Channel, String> channelToSession = new ConcurrentHashMap<>();
-    private final Map<String, String> sessionToUsername = new ConcurrentHashMap<>();
-    private final Map<String, String> usernameToSession = new ConcurrentHashMap<>();
-    
-    public void addConnection(String sessionId, Channel channel, String username) {
-        sessionToChannel.put(sessionId, channel);
-        channelToSession.put(channel, sessionId);
-        sessionToUsername.put(sessionId, username);
+    private final Map<Integer, PlayerSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, PlayerSession> sessionsByUsername = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    @Autowired
+    private WebSocketCompression compression;
+
+    @Autowired
+    private GameMetrics metrics;
+
+    public PlayerSession addConnection(Channel channel, String username) {
+        if (channel.attr(PlayerSession.KEY).get() != null) {
+            removeConnection(channel);
+        }
+        PlayerSession session = new PlayerSession(nextId.getAndIncrement(), UUID.randomUUID().toString(), username, channel);
+        channel.attr(PlayerSession.KEY).set(session);
+        sessions.put(session.getId(), session);
         if (username != null) {
-            usernameToSession.put(username, sessionId);
+            sessionsByUsername.put(username, session);
         }
-        System.out.println("Connection added: " + sessionId + " (" + username + ")");
+        System.out.println("Connection added: " + session.getSessionId() + " (" + username + ")");
+        return session;
     }
-    
-    public void removeConnection(String sessionId) {
-        Channel channel = sessionToChannel.remove(sessionId);
-        if (channel != null) {
-            channelToSession.remove(channel);
+
+    public PlayerSession removeConnection(Channel channel) {
+        PlayerSession session = channel.attr(PlayerSession.KEY).getAndSet(null);
+        if (session == null) {
+            return null;
         }
-        String username = sessionToUsername.remove(sessionId);
-        if (username != null) {
-            usernameToSession.remove(username);
+        sessions.remove(session.getId());
+        if (session.getUsername() != null) {
+            sessionsByUsername.remove(session.getUsername(), session);
         }
-        System.out.println("Connection removed: " + sessionId);
-    }
-    
-    public Channel getChannel(String sessionId) {
-        return sessionToChannel.get(sessionId);
+        System.out.println("Connection removed: " + session.getSessionId());
+        return session;
     }
-    
-    public String getSessionId(Channel channel) {
-        return channelToSession.get(channel);
-    }
-    
-    public String getUsername(String sessionId) {
-        return sessionToUsername.get(sessionId);
+
+    public PlayerSession getSession(Channel channel) {
+        return channel.attr(PlayerSession.KEY).get();
     }
 
-    public String getSessionIdByUsername(String username) {
-        return usernameToSession.get(username);
+    public PlayerSession getSessionByUsername(String username) {
+        return sessionsByUsername.get(username);
     }
-    
-    public void sendToSession(String sessionId, Object message, ObjectMapper objectMapper) {
-        Channel channel = sessionToChannel.get(sessionId);
-        if (channel != null && channel.isActive()) {
-            try {
-                String json = objectMapper.writeValueAsString(message);
-                channel.writeAndFlush(new TextWebSocketFrame(json));
-            } catch (Exception e) {
-                System.err.println("Error sending to session " + sessionId + ": " + e.getMessage());
+
+    public void sendToSession(PlayerSession session, Object message, ObjectMapper objectMapper) {
+        try {
+            String json = objectMapper.writeValueAsString(message);
+            TextWebSocketFrame frame = new TextWebSocketFrame(json);
+            int bytes = frame.content().readableBytes();
+            if (session.send(frame)) {
+                metrics.recordOutbound(1, bytes);
             }
+        } catch (Exception e) {
+            System.err.println("Error sending to session " + session.getSessionId() + ": " + e.getMessage());
+        }
+    }
+
+    public void sendToSessions(Collection<PlayerSession> targets, Object message, ObjectMapper objectMapper) {
+        ByteBufAllocator allocator = allocator(targets);
+        if (allocator == null) {
+            return;
+        }
+        ByteBuf payload = encode(message, objectMapper, allocator);
+        if (payload != null) {
+            sendPayload(targets, payload, null, allocator);
         }
     }
 
     public void broadcast(Object message, ObjectMapper objectMapper) {
-        String json;
-        try {
-            json = objectMapper.writeValueAsString(message);
-        } catch (Exception e) {
-            System.err.println("Error serializing broadcast message: " + e.getMessage());
+        sendToSessions(sessions.values(), message, objectMapper);
+    }
+
+    public void broadCastEveryoneElse(Object message, ObjectMapper objectMapper, Channel ct) {
+        ByteBufAllocator allocator = allocator(sessions.values());
+        if (allocator == null) {
             return;
         }
+        ByteBuf payload = encode(message, objectMapper, allocator);
+        if (payload != null) {
+            sendPayload(sessions.values(), payload, ct, allocator);
+        }
+    }
 
-        for (Channel channel : sessionToChannel.values()) {
-            if (channel != null && channel.isActive()) {
-                TextWebSocketFrame frame = new TextWebSocketFrame(json);
-                channel.writeAndFlush(frame);
-                // No need to retain/release manually because each channel gets a fresh frame
+    /**
+     * Writes one encoded payload to every target except {@code excluded}, then releases it.
+     * Channels that negotiated permessage-deflate share a single compressed copy when allowed.
+     */
+    private void sendPayload(Collection<PlayerSession> targets, ByteBuf payload, Channel excluded,
+                             ByteBufAllocator allocator) {
+        BroadcastEvent event = new BroadcastEvent();
+        event.begin();
+        int size = payload.readableBytes();
+        boolean share = compression.shouldShare(size);
+        ByteBuf compressed = null;
+        int frames = 0;
+        long bytes = 0;
+        try {
+            for (PlayerSession session : targets) {
+                Channel channel = session.getChannel();
+                if (channel == excluded) {
+                    continue;
+                }
+                if (share && compression.isNegotiated(channel)) {
+                    if (compressed == null) {
+                        compressed = compression.compressShared(payload, allocator);
+                    }
+                    if (session.send(new TextWebSocketFrame(true, WebSocketExtension.RSV1, compressed.retainedDuplicate()))) {
+                        compression.recordShared(size);
+                        frames++;
+                        bytes += compressed.readableBytes();
+                    }
+                } else if (session.send(new TextWebSocketFrame(payload.retainedDuplicate()))) {
+                    frames++;
+                    bytes += size;
+                }
+            }
+        } finally {
+            metrics.recordOutbound(frames, bytes);
+            payload.release();
+            if (compressed != null) {
+                compressed.release();
+            }
+            if (event.shouldCommit()) {
+                event.channels = frames;
+                event.payloadBytes = size;
+                event.bytesWritten = bytes;
+                event.sharedCompression = compressed != null;
+                event.commit();
             }
         }
     }
-    public void broadCastEveryoneElse(Object message, ObjectMapper objectMapper, Channel ct) {
-        String json;
+
+    /**
+     * Serializes once into a shared UTF-8 buffer; each channel gets a retained duplicate of it.
+     */
+    private ByteBuf encode(Object message, ObjectMapper objectMapper, ByteBufAllocator allocator) {
+        SnapshotEncodeEvent event = new SnapshotEncodeEvent();
+        event.begin();
         try {
-            json = objectMapper.writeValueAsString(message);
+            String json = objectMapper.writeValueAsString(message);
+            ByteBuf payload = ByteBufUtil.writeUtf8(allocator, json);
+            if (event.shouldCommit()) {
+                event.messageType = message instanceof Map<?, ?> map ? String.valueOf(map.get("type")) : message.getClass().getSimpleName();
+                event.bytes = payload.readableBytes();
+                event.commit();
+            }
+            return payload;
         } catch (Exception e) {
             System.err.println("Error serializing broadcast message: " + e.getMessage());
-            return;
+            return null;
         }
+    }
 
-        for (Channel channel : sessionToChannel.values()) {
-            if (channel != null && channel.isActive() && channel != ct) {
-                TextWebSocketFrame frame = new TextWebSocketFrame(json);
-                channel.writeAndFlush(frame);
-                // No need to retain/release manually because each channel gets a fresh frame
-            }
+    /**
+     * The allocator the server configured for its channels (netty.server.pooled-allocator and prefer-direct),
+     * taken from any target; null when there are no targets.
+     */
+    private static ByteBufAllocator allocator(Collection<PlayerSession> targets) {
+        for (PlayerSession session : targets) {
+            return session.getChannel().alloc();
         }
+        return null;
     }
 
-
     public int getConnectionCount() {
-        return sessionToChannel.size();
+        return sessions.size();
     }
 }
-
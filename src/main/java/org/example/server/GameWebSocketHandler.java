@@ -1,6 +1,5 @@
 package org.example.server;
 
-import ch.qos.logback.core.net.server.Client;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
@@ -8,9 +7,9 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.websocketx.*;
 import org.example.entity.PlayerEntity;
+import org.example.metrics.GameMetrics;
 import org.example.model.*;
 import org.example.repository.PlayerRepository;
-import org.example.service.ClientSession;
 import org.example.service.GameService;
 import org.example.service.LobbiesService;
 import org.example.service.LobbyService;
@@ -32,17 +31,14 @@ public class GameWebSocketHandler extends SimpleChannelInboundHandler<WebSocketF
     private LobbyService lobbyService;
     @Autowired
     private ConnectionManager connectionManager;
-
-    private Map<String, ClientSession> sessions;
+    @Autowired
+    private GameMetrics metrics;
 
 
     @Autowired
     private PlayerRepository playerRepository;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public GameWebSocketHandler() {
-        this.sessions = new HashMap<>();
-    }
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, WebSocketFrame frame) throws Exception {
         if (frame instanceof CloseWebSocketFrame) {
@@ -64,18 +60,22 @@ public class GameWebSocketHandler extends SimpleChannelInboundHandler<WebSocketF
     }
 
     private void handleMessage(Channel channel, String text) {
+        long receivedAtNanos = System.nanoTime();
         try {
             Map<String, Object> message = objectMapper.readValue(text, Map.class);
             String type = (String) message.get("type");
             Map<String, Object> data = (Map<String, Object>) message.get("data");
+            metrics.recordInbound(type);
 
             if (type == null || data == null) {
                 System.err.println("Invalid message received. Missing type or data.");
                 return;
             }
 
-            String sessionId = connectionManager.getSessionId(channel);
-            String username = (String) data.get("username");
+            PlayerSession session = connectionManager.getSession(channel);
+            // An authenticated handshake fixes the identity; the message's username is only used without one
+            PlayerIdentity identity = channel.attr(PlayerIdentity.KEY).get();
+            String username = identity != null ? identity.getUsername() : (String) data.get("username");
 
             switch (type) {
 
@@ -84,16 +84,20 @@ public class GameWebSocketHandler extends SimpleChannelInboundHandler<WebSocketF
                     break;
 
                 case "JOIN":
-                    handleJoin(channel, username);
+                    handleJoin(channel, identity, username);
                     break;
 
                 case "START":
-                    handleStart(sessionId, username);
+                    handleStart(session);
                     break;
 
 
                 case "INPUT":
-                    handleInput(sessionId, data);
+                    handleInput(session, data, receivedAtNanos);
+                    break;
+
+                case "RESYNC":
+                    handleResync(session, data);
                     break;
 
                 default:
@@ -107,45 +111,57 @@ public class GameWebSocketHandler extends SimpleChannelInboundHandler<WebSocketF
     }
 
     private void handleLogin(Channel channel, String username) {
-        String newSessionId = UUID.randomUUID().toString();
-        connectionManager.addConnection(newSessionId, channel, username);
+        PlayerSession previous = connectionManager.getSession(channel);
+        if (previous != null) {
+            gameService.removePlayer(previous);
+        }
+        connectionManager.addConnection(channel, username);
     }
-    private void handleJoin(Channel channel, String username) {
-        String sessionId = UUID.randomUUID().toString();
-
-        Optional<PlayerEntity> entityOpt = playerRepository.findByUsername(username);
-        if (entityOpt.isEmpty()) {
-            System.err.println("Player not found: " + username);
-            return;
+    private void handleJoin(Channel channel, PlayerIdentity identity, String username) {
+        LobbyEntry lobbyEntry;
+        if (identity != null) {
+            lobbyEntry = lobbyService.addLobbyEntry(identity.getUsername(), identity.getTotalScore());
+        } else {
+            Optional<PlayerEntity> entityOpt = metrics.timeDb("findByUsername", () -> playerRepository.findByUsername(username));
+            if (entityOpt.isEmpty()) {
+                System.err.println("Player not found: " + username);
+                return;
+            }
+            lobbyEntry = lobbyService.addLobbyEntry(entityOpt.get());
         }
 
-        PlayerEntity player = entityOpt.get();
-
-        LobbyEntry lobbyEntry = lobbyService.addLobbyEntry(player);
-        ClientSession session = new ClientSession(sessionId, username);
-        sessions.put(sessionId, session);
-
         // Send response
         Map<String, Object> response = new HashMap<>();
         response.put("type", "LOBBY");
         response.put("data", Map.of("Player", lobbyEntry));
 
-        connectionManager.sendToSession(sessionId, response, objectMapper);
+        sendMessage(channel, response);
     }
-    private void handleStart(String sessionId, String username) {
-        if (sessionId == null) {
+    private void handleStart(PlayerSession session) {
+        if (session == null) {
             System.err.println("Cannot start game: session is null");
             return;
         }
 
         // Direct game start (not from lobby) - pass null for lobbyId
-        gameService.addPlayerToGame(sessionId, username, connectionManager.getChannel(sessionId), null);
+        gameService.addPlayerToGame(session, null);
     }
-    private void handleInput(String sessionId, Map<String, Object> data) {
-        if (sessionId == null) return;
+    private void handleInput(PlayerSession session, Map<String, Object> data, long receivedAtNanos) {
+        if (session == null) return;
 
         PlayerInput input = objectMapper.convertValue(data, PlayerInput.class);
-        gameService.handlePlayerInput(sessionId, input);
+        input.setReceivedAtNanos(receivedAtNanos);
+        gameService.handlePlayerInput(session, input);
+    }
+
+    /**
+     * The client missed room events after the sequence number it last applied; see {@link org.example.service.RoomEvents}.
+     */
+    private void handleResync(PlayerSession session, Map<String, Object> data) {
+        if (session == null) return;
+
+        Object after = data.get("after");
+        gameService.resyncEvents(session, after instanceof Number number ? number.longValue() : 0);
     }
 
     @Override
@@ -155,11 +171,15 @@ public class GameWebSocketHandler extends SimpleChannelInboundHandler<WebSocketF
     
     @Override
     public void channelInactive(ChannelHandlerContext ctx) {
-        String sessionId = connectionManager.getSessionId(ctx.channel());
-        if (sessionId != null) {
-            System.out.println("WebSocket connection closed: " + sessionId);
-            gameService.removePlayer(sessionId);
-            connectionManager.removeConnection(sessionId);
+        PlayerSession session = connectionManager.getSession(ctx.channel());
+        if (session != null) {
+            System.out.println("WebSocket connection closed: " + session.getSessionId());
+            try {
+                gameService.removePlayer(session);
+            } finally {
+                // The session must leave the registry even if leaving its room failed
+                connectionManager.removeConnection(ctx.channel());
+            }
         } else {
             System.out.println("WebSocket connection closed before handshake completed: " + ctx.channel().remoteAddress());
         }
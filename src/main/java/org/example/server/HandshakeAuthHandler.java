@@ -0,0 +1,149 @@
+package org.example.server;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.*;
+import io.netty.util.ReferenceCountUtil;
+import jakarta.annotation.PreDestroy;
+import org.example.entity.PlayerEntity;
+import org.example.repository.PlayerRepository;
+import org.example.service.SessionTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Validates the session token on the WebSocket upgrade request ("/ws?token=..." or
+ * "Authorization: Bearer ...") and binds the player's {@link PlayerIdentity} to the channel.
+ * The profile lookup runs off the event loop; the handler removes itself once the upgrade is authorized.
+ */
+@Component
+@ChannelHandler.Sharable
+public class HandshakeAuthHandler extends ChannelInboundHandlerAdapter {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Value("${websocket.auth.required:true}")
+    private boolean authRequired;
+
+    private final ExecutorService profileLoader = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "ws-profile-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof FullHttpRequest request)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+
+        QueryStringDecoder query = new QueryStringDecoder(request.uri());
+        String token = extractToken(query, request.headers());
+        // WebSocketServerProtocolHandler matches the bare path, and the token shouldn't linger in the URI
+        request.setUri(query.path());
+
+        if (token == null) {
+            if (authRequired) {
+                reject(ctx, request, "Missing session token");
+            } else {
+                ctx.pipeline().remove(this);
+                ctx.fireChannelRead(request);
+            }
+            return;
+        }
+
+        String username = sessionTokenService.validateToken(token);
+        if (username == null) {
+            reject(ctx, request, "Invalid or expired session token");
+            return;
+        }
+
+        // Hold further reads until the profile is bound, then resume on the channel's event loop
+        ctx.channel().config().setAutoRead(false);
+        try {
+            profileLoader.execute(() -> {
+                Optional<PlayerEntity> player;
+                try {
+                    player = playerRepository.findByUsername(username);
+                } catch (Exception e) {
+                    System.err.println("Error loading player profile for " + username + ": " + e.getMessage());
+                    player = Optional.empty();
+                }
+                Optional<PlayerEntity> loaded = player;
+                try {
+                    ctx.executor().execute(() -> {
+                        // The client may have gone away during the lookup; nothing is left to hand the request to
+                        if (!ctx.channel().isActive() || ctx.isRemoved()) {
+                            ReferenceCountUtil.release(request);
+                            return;
+                        }
+                        ctx.channel().config().setAutoRead(true);
+                        if (loaded.isEmpty()) {
+                            reject(ctx, request, "Unknown player");
+                            return;
+                        }
+                        ctx.channel().attr(PlayerIdentity.KEY).set(new PlayerIdentity(loaded.get()));
+                        ctx.pipeline().remove(this);
+                        ctx.fireChannelRead(request);
+                    });
+                } catch (RejectedExecutionException e) {
+                    // The event loop is shutting down; don't leave the channel open with reads off
+                    ReferenceCountUtil.release(request);
+                    ctx.channel().close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            ReferenceCountUtil.release(request);
+            ctx.close();
+        }
+    }
+
+    /**
+     * The bearer header when present; the query parameter is the fallback for browsers, which can't set headers
+     * on a WebSocket upgrade.
+     */
+    private String extractToken(QueryStringDecoder query, HttpHeaders headers) {
+        String header = headers.get(HttpHeaderNames.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length()).trim();
+        }
+        List<String> tokens = query.parameters().get("token");
+        if (tokens != null && !tokens.isEmpty()) {
+            return tokens.get(0);
+        }
+        return null;
+    }
+
+    private void reject(ChannelHandlerContext ctx, FullHttpRequest request, String reason) {
+        ReferenceCountUtil.release(request);
+        System.err.println("Rejected WebSocket upgrade from " + ctx.channel().remoteAddress() + ": " + reason);
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.UNAUTHORIZED, Unpooled.copiedBuffer(reason, StandardCharsets.UTF_8));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8");
+        response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        profileLoader.shutdownNow();
+    }
+}
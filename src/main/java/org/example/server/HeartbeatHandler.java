@@ -0,0 +1,101 @@
+package org.example.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-driven heartbeat. The {@link IdleStateHandler} sits at the head of the pipeline, so any
+ * inbound bytes (including pongs) count as liveness. A quiet connection is pinged once per interval
+ * and closed after too many unanswered pings; closing goes through the normal channelInactive /
+ * removePlayer path.
+ */
+@Component
+@ChannelHandler.Sharable
+public class HeartbeatHandler extends ChannelInboundHandlerAdapter {
+    private static final AttributeKey<Integer> MISSED_PINGS = AttributeKey.valueOf("missedPings");
+    private static final AttributeKey<Boolean> UPGRADED = AttributeKey.valueOf("websocketUpgraded");
+
+    @Value("${websocket.heartbeat.ping-interval-seconds:10}")
+    private int pingIntervalSeconds;
+
+    @Value("${websocket.heartbeat.max-missed-pings:2}")
+    private int maxMissedPings;
+
+    private final Counter pings;
+    private final Counter idleEvictions;
+    private final Counter handshakeEvictions;
+
+    public HeartbeatHandler(MeterRegistry registry) {
+        this.pings = Counter.builder("websocket.heartbeat.pings")
+                .description("Heartbeat pings sent to quiet connections")
+                .register(registry);
+        this.idleEvictions = Counter.builder("websocket.evictions")
+                .tag("reason", "idle")
+                .description("Connections closed by the heartbeat")
+                .register(registry);
+        this.handshakeEvictions = Counter.builder("websocket.evictions")
+                .tag("reason", "handshake")
+                .description("Connections closed by the heartbeat")
+                .register(registry);
+    }
+
+    public IdleStateHandler newIdleStateHandler() {
+        return new IdleStateHandler(pingIntervalSeconds, pingIntervalSeconds, 0, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof WebSocketServerProtocolHandler.HandshakeComplete) {
+            ctx.channel().attr(UPGRADED).set(Boolean.TRUE);
+        } else if (evt instanceof IdleStateEvent idle) {
+            onIdle(ctx, idle);
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    private void onIdle(ChannelHandlerContext ctx, IdleStateEvent idle) {
+        if (!Boolean.TRUE.equals(ctx.channel().attr(UPGRADED).get())) {
+            // Never finished the WebSocket upgrade; nothing to ping
+            if (idle.state() == IdleState.READER_IDLE) {
+                handshakeEvictions.increment();
+                ctx.close();
+            }
+            return;
+        }
+
+        if (idle.state() == IdleState.WRITER_IDLE) {
+            ping(ctx);
+            return;
+        }
+
+        Integer previous = ctx.channel().attr(MISSED_PINGS).get();
+        int missed = idle.isFirst() || previous == null ? 1 : previous + 1;
+        ctx.channel().attr(MISSED_PINGS).set(missed);
+        if (missed > maxMissedPings) {
+            System.out.println("Evicting idle WebSocket connection: " + ctx.channel().remoteAddress());
+            idleEvictions.increment();
+            ctx.close();
+        } else {
+            ping(ctx);
+        }
+    }
+
+    private void ping(ChannelHandlerContext ctx) {
+        pings.increment();
+        ctx.writeAndFlush(new PingWebSocketFrame());
+    }
+}
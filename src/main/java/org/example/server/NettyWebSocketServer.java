@@ -1,42 +1,72 @@
 package org.example.server;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import org.example.config.NettyServerProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class NettyWebSocketServer {
-    private static final int WEBSOCKET_PORT = 8081;
-    
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
     private Channel serverChannel;
-    
+
     @Autowired
     private WebSocketChannelInitializer channelInitializer;
-    
+
+    @Autowired
+    private NettyServerProperties properties;
+
     @PostConstruct
     public void start() throws InterruptedException {
-        bossGroup = new NioEventLoopGroup(1);
-        workerGroup = new NioEventLoopGroup();
-        
+        boolean useEpoll = properties.isNativeTransport() && Epoll.isAvailable();
+        Class<? extends ServerChannel> channelClass;
+        if (useEpoll) {
+            bossGroup = new EpollEventLoopGroup(properties.getBossThreads());
+            workerGroup = new EpollEventLoopGroup(properties.getWorkerThreads());
+            channelClass = EpollServerSocketChannel.class;
+        } else {
+            bossGroup = new NioEventLoopGroup(properties.getBossThreads());
+            workerGroup = new NioEventLoopGroup(properties.getWorkerThreads());
+            channelClass = NioServerSocketChannel.class;
+        }
+
+        ByteBufAllocator allocator = properties.isPooledAllocator()
+                ? new PooledByteBufAllocator(properties.isPreferDirect())
+                : new UnpooledByteBufAllocator(properties.isPreferDirect());
+        WriteBufferWaterMark waterMark = new WriteBufferWaterMark(
+                properties.getWriteBufferLowWaterMark(), properties.getWriteBufferHighWaterMark());
+
         try {
             ServerBootstrap bootstrap = new ServerBootstrap();
             bootstrap.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .option(ChannelOption.SO_BACKLOG, 128)
-                    .childOption(ChannelOption.SO_KEEPALIVE, true)
+                    .channel(channelClass)
+                    .option(ChannelOption.SO_BACKLOG, properties.getSoBacklog())
+                    .option(ChannelOption.ALLOCATOR, allocator)
+                    .childOption(ChannelOption.SO_KEEPALIVE, properties.isSoKeepAlive())
+                    .childOption(ChannelOption.TCP_NODELAY, properties.isTcpNoDelay())
+                    .childOption(ChannelOption.ALLOCATOR, allocator)
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, waterMark)
                     .childHandler(channelInitializer);
-            
-            serverChannel = bootstrap.bind(WEBSOCKET_PORT).sync().channel();
-            System.out.println("Netty WebSocket server started on port " + WEBSOCKET_PORT);
+
+            serverChannel = bootstrap.bind(properties.getPort()).sync().channel();
+            System.out.println("Netty WebSocket server started on port " + properties.getPort());
+            printEffectiveSettings(useEpoll, allocator);
         } catch (Exception e) {
             System.err.println("Failed to start Netty WebSocket server: " + e.getMessage());
             e.printStackTrace();
@@ -44,7 +74,35 @@ public class NettyWebSocketServer {
             throw e;
         }
     }
-    
+
+    private void printEffectiveSettings(boolean useEpoll, ByteBufAllocator allocator) {
+        String transport = useEpoll ? "epoll" : "nio";
+        if (properties.isNativeTransport() && !useEpoll) {
+            transport += " (epoll unavailable: " + Epoll.unavailabilityCause() + ")";
+        }
+        int workers = 0;
+        for (var ignored : workerGroup) {
+            workers++;
+        }
+        System.out.println("  transport=" + transport
+                + ", bossThreads=" + properties.getBossThreads()
+                + ", workerThreads=" + workers);
+        System.out.println("  SO_BACKLOG=" + properties.getSoBacklog()
+                + ", TCP_NODELAY=" + properties.isTcpNoDelay()
+                + ", SO_KEEPALIVE=" + properties.isSoKeepAlive());
+        System.out.println("  allocator=" + allocator.getClass().getSimpleName()
+                + " (preferDirect=" + properties.isPreferDirect() + ")"
+                + ", writeBufferWaterMark=" + properties.getWriteBufferLowWaterMark()
+                + "/" + properties.getWriteBufferHighWaterMark());
+    }
+
+    /**
+     * The worker event loops; the room scheduler ticks rooms on these.
+     */
+    public EventLoopGroup getWorkerGroup() {
+        return workerGroup;
+    }
+
     @PreDestroy
     public void shutdown() {
         if (serverChannel != null) {
@@ -59,4 +117,3 @@ public class NettyWebSocketServer {
         System.out.println("Netty WebSocket server stopped");
     }
 }
-
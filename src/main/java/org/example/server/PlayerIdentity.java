@@ -0,0 +1,29 @@
+package org.example.server;
+
+import io.netty.util.AttributeKey;
+import org.example.entity.PlayerEntity;
+
+/**
+ * Authenticated player bound to a WebSocket channel at handshake time,
+ * with the profile data later messages need so they never hit the repository.
+ */
+public final class PlayerIdentity {
+    public static final AttributeKey<PlayerIdentity> KEY = AttributeKey.valueOf("playerIdentity");
+
+    private final String username;
+    private final int totalScore;
+    private final int wins;
+    private final int gamesPlayed;
+
+    public PlayerIdentity(PlayerEntity player) {
+        this.username = player.getUsername();
+        this.totalScore = player.getTotalScore();
+        this.wins = player.getWins();
+        this.gamesPlayed = player.getGamesPlayed();
+    }
+
+    public String getUsername() { return username; }
+    public int getTotalScore() { return totalScore; }
+    public int getWins() { return wins; }
+    public int getGamesPlayed() { return gamesPlayed; }
+}
@@ -0,0 +1,60 @@
+package org.example.server;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.util.AttributeKey;
+import org.example.service.GameRoom;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Everything the server tracks for one logged-in WebSocket connection.
+ * Stored on the channel under {@link #KEY}, so inbound frames resolve their session without a map lookup.
+ */
+public class PlayerSession {
+    public static final AttributeKey<PlayerSession> KEY = AttributeKey.valueOf("playerSession");
+
+    private final int id;
+    private final String sessionId;
+    private final String username;
+    private final Channel channel;
+    private volatile GameRoom room;
+
+    // Outbound state
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final SnapshotBudget snapshotBudget = new SnapshotBudget();
+
+    public PlayerSession(int id, String sessionId, String username, Channel channel) {
+        this.id = id;
+        this.sessionId = sessionId;
+        this.username = username;
+        this.channel = channel;
+    }
+
+    /**
+     * Writes the frame if the channel is still open; the frame is released otherwise.
+     */
+    public boolean send(WebSocketFrame frame) {
+        if (!channel.isActive()) {
+            frame.release();
+            return false;
+        }
+        framesSent.incrementAndGet();
+        bytesSent.addAndGet(frame.content().readableBytes());
+        channel.writeAndFlush(frame);
+        return true;
+    }
+
+    public int getId() { return id; }
+    public String getSessionId() { return sessionId; }
+    public String getUsername() { return username; }
+    public Channel getChannel() { return channel; }
+
+    public GameRoom getRoom() { return room; }
+    public void setRoom(GameRoom room) { this.room = room; }
+
+    public long getFramesSent() { return framesSent.get(); }
+    public long getBytesSent() { return bytesSent.get(); }
+    public SnapshotBudget getSnapshotBudget() { return snapshotBudget; }
+}
@@ -0,0 +1,241 @@
+package org.example.server;
+
+import org.example.service.GameRoom;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Per-client snapshot byte budget with a priority accumulator. Every entity left out of a snapshot gains
+ * priority, weighted by how relevant it is to the client: ships over bullets, the client's own bullets over
+ * others', and anything near the client's ship over what is far away. Each partial snapshot takes the
+ * client's own ship, then the highest priorities that still fit the budget. Sent entities drop back to zero,
+ * so everything is refreshed eventually and nearby action most often.
+ *
+ * <p>A client whose channel is still backed up when a snapshot is due skips it, and its budget is halved
+ * down to {@link #MIN_SCALE}; it grows back a quarter per snapshot once the channel drains. A slow link
+ * therefore gets smaller, less frequent updates instead of a growing backlog of stale ones.
+ *
+ * <p>Only used from the thread ticking the client's room.
+ */
+public final class SnapshotBudget {
+    private static final double SHIP_WEIGHT = 4;
+    private static final double BULLET_WEIGHT = 1;
+    private static final double OWN_BULLET_WEIGHT = 2;
+    // Relevance halves at this distance from the client's ship
+    private static final double RELEVANCE_DISTANCE = 400;
+    private static final double MIN_SCALE = 0.125;
+
+    private final Track ships = new Track();
+    private final Track bullets = new Track();
+    private GameRoom room;
+    private double scale = 1;
+    // Priority in the high half, candidate index in the low half; sorts by priority
+    private long[] keys = new long[16];
+
+    /**
+     * Ids of one entity kind the client has been told about, in id order, with their accumulated priority.
+     */
+    private static final class Track {
+        private long[] ids = new long[16];
+        private double[] priorities = new double[16];
+        private boolean[] sent = new boolean[16];
+        private int size;
+        private long[] nextIds = new long[16];
+        private double[] nextPriorities = new double[16];
+        private boolean[] nextSent = new boolean[16];
+        private long[] gone = new long[16];
+        private int goneCount;
+
+        /**
+         * Lines the track up with the frame's rows, which are in id order like the track. Entities that
+         * left since the previous snapshot and had been sent are collected as gone.
+         */
+        void align(long[] rows, int stride, int count) {
+            if (nextIds.length < count) {
+                int capacity = Math.max(count, nextIds.length * 2);
+                nextIds = new long[capacity];
+                nextPriorities = new double[capacity];
+                nextSent = new boolean[capacity];
+            }
+            goneCount = 0;
+            int old = 0;
+            for (int row = 0; row < count; row++) {
+                long id = rows[row * stride];
+                while (old < size && ids[old] < id) {
+                    left(old++);
+                }
+                nextIds[row] = id;
+                if (old < size && ids[old] == id) {
+                    nextPriorities[row] = priorities[old];
+                    nextSent[row] = sent[old];
+                    old++;
+                } else {
+                    nextPriorities[row] = 0;
+                    nextSent[row] = false;
+                }
+            }
+            while (old < size) {
+                left(old++);
+            }
+            long[] swapIds = ids;
+            ids = nextIds;
+            nextIds = swapIds;
+            double[] swapPriorities = priorities;
+            priorities = nextPriorities;
+            nextPriorities = swapPriorities;
+            boolean[] swapSent = sent;
+            sent = nextSent;
+            nextSent = swapSent;
+            size = count;
+        }
+
+        private void left(int old) {
+            if (!sent[old]) {
+                return;
+            }
+            if (goneCount == gone.length) {
+                gone = Arrays.copyOf(gone, goneCount * 2);
+            }
+            gone[goneCount++] = ids[old];
+        }
+
+        void sentAll() {
+            Arrays.fill(priorities, 0, size, 0);
+            Arrays.fill(sent, 0, size, true);
+        }
+
+        int goneBytes() {
+            int bytes = 0;
+            for (int i = 0; i < goneCount; i++) {
+                bytes += SnapshotEncoder.digits(gone[i]) + 1;
+            }
+            return bytes;
+        }
+
+        long[] gone() {
+            return Arrays.copyOf(gone, goneCount);
+        }
+    }
+
+    /**
+     * Bytes this client may take in the next snapshot, or 0 to skip it because its channel hasn't drained.
+     */
+    public int allowance(int budgetBytes, boolean writable) {
+        if (!writable) {
+            scale = Math.max(MIN_SCALE, scale / 2);
+            return 0;
+        }
+        scale = Math.min(1, scale * 1.25);
+        return (int) (budgetBytes * scale);
+    }
+
+    /**
+     * Records that the client got the full frame.
+     */
+    public void sentAll(GameRoom room, SnapshotEncoder.Frame frame) {
+        enter(room);
+        ships.align(frame.ships, SnapshotEncoder.SHIP_STRIDE, frame.shipCount);
+        bullets.align(frame.bullets, SnapshotEncoder.BULLET_STRIDE, frame.bulletCount);
+        ships.sentAll();
+        bullets.sentAll();
+    }
+
+    /**
+     * The partial snapshot for this client: its own ship, then the entities with the highest accumulated
+     * priority, as many as fit in {@code allowance} bytes.
+     */
+    public Map<String, Object> select(GameRoom room, SnapshotEncoder.Frame frame, int ownShipId, int allowance) {
+        enter(room);
+        ships.align(frame.ships, SnapshotEncoder.SHIP_STRIDE, frame.shipCount);
+        bullets.align(frame.bullets, SnapshotEncoder.BULLET_STRIDE, frame.bulletCount);
+        int remaining = allowance - SnapshotEncoder.FRAME_OVERHEAD_BYTES - ships.goneBytes() - bullets.goneBytes();
+
+        boolean[] shipSelected = new boolean[frame.shipCount];
+        boolean[] bulletSelected = new boolean[frame.bulletCount];
+        int own = -1;
+        for (int row = 0; row < frame.shipCount; row++) {
+            if (frame.ships[row * SnapshotEncoder.SHIP_STRIDE] == ownShipId) {
+                own = row;
+            }
+        }
+        // The client always sees its own ship: it reconciles its prediction against it
+        if (own >= 0) {
+            shipSelected[own] = true;
+            ships.priorities[own] = 0;
+            ships.sent[own] = true;
+            remaining -= frame.shipBytes[own];
+        }
+
+        int candidates = frame.shipCount + frame.bulletCount;
+        if (keys.length < candidates) {
+            keys = new long[Math.max(candidates, keys.length * 2)];
+        }
+        int n = 0;
+        for (int row = 0; row < frame.shipCount; row++) {
+            if (row == own) {
+                continue;
+            }
+            double priority = ships.priorities[row] += SHIP_WEIGHT
+                    * relevance(frame, own, frame.shipX[row], frame.shipY[row]);
+            keys[n++] = key(priority, row);
+        }
+        for (int row = 0; row < frame.bulletCount; row++) {
+            long shooter = frame.bullets[row * SnapshotEncoder.BULLET_STRIDE + 1];
+            double weight = shooter == ownShipId ? OWN_BULLET_WEIGHT : BULLET_WEIGHT;
+            double priority = bullets.priorities[row] += weight
+                    * relevance(frame, own, frame.bulletX[row], frame.bulletY[row]);
+            keys[n++] = key(priority, frame.shipCount + row);
+        }
+        Arrays.sort(keys, 0, n);
+
+        for (int k = n - 1; k >= 0 && remaining > 0; k--) {
+            int index = (int) keys[k];
+            if (index < frame.shipCount) {
+                if (frame.shipBytes[index] <= remaining) {
+                    remaining -= frame.shipBytes[index];
+                    shipSelected[index] = true;
+                    ships.priorities[index] = 0;
+                    ships.sent[index] = true;
+                }
+            } else {
+                int row = index - frame.shipCount;
+                if (frame.bulletBytes[row] <= remaining) {
+                    remaining -= frame.bulletBytes[row];
+                    bulletSelected[row] = true;
+                    bullets.priorities[row] = 0;
+                    bullets.sent[row] = true;
+                }
+            }
+        }
+        return frame.data(shipSelected, bulletSelected, ships.gone(), bullets.gone());
+    }
+
+    /**
+     * Starts over when the client moved to another room: ids are only unique within one.
+     */
+    private void enter(GameRoom room) {
+        if (this.room != room) {
+            this.room = room;
+            ships.size = 0;
+            bullets.size = 0;
+        }
+    }
+
+    private static double relevance(SnapshotEncoder.Frame frame, int own, double x, double y) {
+        if (own < 0) {
+            return 1;
+        }
+        double distance = Math.hypot(x - frame.shipX[own], y - frame.shipY[own]);
+        return 1 / (1 + distance / RELEVANCE_DISTANCE);
+    }
+
+    /**
+     * Non-negative floats order like their bits, so the packed keys sort by priority.
+     */
+    private static long key(double priority, int index) {
+        return ((long) Float.floatToIntBits((float) priority) << 32) | index;
+    }
+
+    public double getScale() { return scale; }
+}
@@ -0,0 +1,229 @@
+package org.example.server;
+
+import org.example.model.Arena;
+import org.example.model.Bullet;
+import org.example.model.GameState;
+import org.example.model.Spaceship;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact GAME_STATE payload. Entities are referred to by their room-local integer ids instead of session
+ * ids, and each kind is a flat array of integers, {@link #SHIP_FIELDS} or {@link #BULLET_FIELDS} per entity.
+ * Positions are 16-bit fixed point fractions of the arena's width or height, and angles are 16-bit fractions
+ * of a full turn. Clients learn the layout once from {@link #describe}.
+ *
+ * <p>Snapshots only carry continuous state. Health, score, who is alive, who is in the room and the match
+ * result change rarely and must not be missed, so they travel on the room's event stream instead; see
+ * {@link org.example.service.RoomEvents}.
+ *
+ * <p>A snapshot is either full, listing every entity, or partial ({@code "partial": true}), listing only the
+ * entities chosen for one client plus the ids of entities removed since that client's previous snapshot.
+ * See {@link SnapshotBudget}.
+ */
+public final class SnapshotEncoder {
+    public static final int POSITION_BITS = 16;
+    public static final int ANGLE_BITS = 16;
+    public static final List<String> SHIP_FIELDS = List.of(
+            "id", "x", "y", "angle", "lastInputSeq", "nextShotTick");
+    public static final List<String> BULLET_FIELDS = List.of("id", "shooter", "x", "y", "angle");
+    static final int SHIP_STRIDE = SHIP_FIELDS.size();
+    static final int BULLET_STRIDE = BULLET_FIELDS.size();
+
+    private static final int POSITION_MAX = (1 << POSITION_BITS) - 1;
+    private static final int ANGLE_STEPS = 1 << ANGLE_BITS;
+    // Message type, tick, game time and the array brackets, rounded up
+    static final int FRAME_OVERHEAD_BYTES = 96;
+
+    private SnapshotEncoder() {
+    }
+
+    /**
+     * The snapshot layout a client needs to decode GAME_STATE data.
+     */
+    public static Map<String, Object> describe() {
+        Map<String, Object> format = new LinkedHashMap<>();
+        format.put("positionBits", POSITION_BITS);
+        format.put("angleBits", ANGLE_BITS);
+        format.put("shipFields", SHIP_FIELDS);
+        format.put("bulletFields", BULLET_FIELDS);
+        return format;
+    }
+
+    public static Map<String, Object> encode(GameState state) {
+        return frame(state).data();
+    }
+
+    /**
+     * Encodes every entity of the state once; the frame then serves the full snapshot and every client's
+     * partial one.
+     */
+    public static Frame frame(GameState state) {
+        return new Frame(state);
+    }
+
+    /**
+     * One snapshot's rows in id order, with the size each adds to the JSON payload and the world position
+     * each was encoded from.
+     */
+    public static final class Frame {
+        private final GameState state;
+        final int shipCount;
+        final long[] ships;
+        final int[] shipBytes;
+        final double[] shipX;
+        final double[] shipY;
+        final int bulletCount;
+        final long[] bullets;
+        final int[] bulletBytes;
+        final double[] bulletX;
+        final double[] bulletY;
+        private int bytes = FRAME_OVERHEAD_BYTES;
+
+        private Frame(GameState state) {
+            this.state = state;
+            Arena arena = state.getArena();
+            Map<String, Spaceship> spaceships = state.getSpaceships();
+            shipCount = spaceships.size();
+            ships = new long[shipCount * SHIP_STRIDE];
+            shipBytes = new int[shipCount];
+            shipX = new double[shipCount];
+            shipY = new double[shipCount];
+            int row = 0;
+            for (Spaceship spaceship : spaceships.values()) {
+                int i = row * SHIP_STRIDE;
+                ships[i] = spaceship.getId();
+                ships[i + 1] = position(spaceship.getX(), arena.width());
+                ships[i + 2] = position(spaceship.getY(), arena.height());
+                ships[i + 3] = angle(spaceship.getAngle());
+                ships[i + 4] = spaceship.getLastInputSeq();
+                ships[i + 5] = spaceship.getNextShotTick();
+                shipX[row] = spaceship.getX();
+                shipY[row] = spaceship.getY();
+                shipBytes[row] = rowBytes(ships, i, SHIP_STRIDE);
+                bytes += shipBytes[row];
+                row++;
+            }
+
+            int count = 0;
+            for (Bullet bullet : state.getBullets()) {
+                if (bullet.isActive()) {
+                    count++;
+                }
+            }
+            bulletCount = count;
+            bullets = new long[count * BULLET_STRIDE];
+            bulletBytes = new int[count];
+            bulletX = new double[count];
+            bulletY = new double[count];
+            row = 0;
+            for (Bullet bullet : state.getBullets()) {
+                if (!bullet.isActive()) {
+                    continue; // Hit something this step; gone from the next snapshot on anyway
+                }
+                int i = row * BULLET_STRIDE;
+                bullets[i] = bullet.getId();
+                bullets[i + 1] = bullet.getShooterShipId();
+                bullets[i + 2] = position(bullet.getX(), arena.width());
+                bullets[i + 3] = position(bullet.getY(), arena.height());
+                bullets[i + 4] = angle(Math.toDegrees(Math.atan2(bullet.getVelocityY(), bullet.getVelocityX())));
+                bulletX[row] = bullet.getX();
+                bulletY[row] = bullet.getY();
+                bulletBytes[row] = rowBytes(bullets, i, BULLET_STRIDE);
+                bytes += bulletBytes[row];
+                row++;
+            }
+        }
+
+        /**
+         * Approximate size of the full snapshot's JSON payload.
+         */
+        public int getBytes() { return bytes; }
+
+        /**
+         * The full snapshot.
+         */
+        public Map<String, Object> data() {
+            Map<String, Object> data = header();
+            data.put("ships", ships);
+            data.put("bullets", bullets);
+            return data;
+        }
+
+        /**
+         * A partial snapshot with the selected rows, in id order, and the ids removed since the client's last one.
+         */
+        Map<String, Object> data(boolean[] shipSelected, boolean[] bulletSelected, long[] goneShips, long[] goneBullets) {
+            Map<String, Object> data = header();
+            data.put("partial", true);
+            data.put("ships", select(ships, SHIP_STRIDE, shipCount, shipSelected));
+            data.put("bullets", select(bullets, BULLET_STRIDE, bulletCount, bulletSelected));
+            data.put("goneShips", goneShips);
+            data.put("goneBullets", goneBullets);
+            return data;
+        }
+
+        private Map<String, Object> header() {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("tick", state.getTick());
+            data.put("gameTime", state.getGameTime());
+            return data;
+        }
+
+        private static long[] select(long[] rows, int stride, int count, boolean[] selected) {
+            int chosen = 0;
+            for (int row = 0; row < count; row++) {
+                if (selected[row]) {
+                    chosen++;
+                }
+            }
+            long[] subset = new long[chosen * stride];
+            int at = 0;
+            for (int row = 0; row < count; row++) {
+                if (selected[row]) {
+                    System.arraycopy(rows, row * stride, subset, at, stride);
+                    at += stride;
+                }
+            }
+            return subset;
+        }
+    }
+
+    /**
+     * Bytes the values add to a JSON array: their digits and a separating comma each.
+     */
+    static int rowBytes(long[] values, int from, int count) {
+        int bytes = 0;
+        for (int i = from; i < from + count; i++) {
+            bytes += digits(values[i]) + 1;
+        }
+        return bytes;
+    }
+
+    static int digits(long value) {
+        int digits = value < 0 ? 2 : 1;
+        long magnitude = Math.abs(value);
+        while (magnitude >= 10) {
+            magnitude /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * The value as a fraction of the extent, clamped to it, in {@link #POSITION_BITS} bits.
+     */
+    static int position(double value, int extent) {
+        double fraction = Math.min(Math.max(value / extent, 0), 1);
+        return (int) Math.round(fraction * POSITION_MAX);
+    }
+
+    /**
+     * Degrees as a fraction of a full turn in {@link #ANGLE_BITS} bits; 360 wraps to 0.
+     */
+    static int angle(double degrees) {
+        return (int) Math.round(degrees / 360 * ANGLE_STEPS) & (ANGLE_STEPS - 1);
+    }
+}
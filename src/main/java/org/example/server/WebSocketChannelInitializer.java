@@ -17,16 +17,44 @@ public class WebSocketChannelInitializer extends ChannelInitializer<SocketChanne
     @Autowired
     private GameWebSocketHandler gameWebSocketHandler;
 
+    @Autowired
+    private HandshakeAuthHandler handshakeAuthHandler;
+
+    @Autowired
+    private WebSocketCompression compression;
+
+    @Autowired
+    private HeartbeatHandler heartbeatHandler;
+
     @Override
     protected void initChannel(SocketChannel ch) {
         ChannelPipeline pipeline = ch.pipeline();
 
+        // Idle detection first, so any inbound bytes count as liveness
+        pipeline.addLast(heartbeatHandler.newIdleStateHandler());
+
         // HTTP codec
         pipeline.addLast(new HttpServerCodec());
         pipeline.addLast(new HttpObjectAggregator(65536));
 
+        // Session token check on the upgrade request; binds PlayerIdentity to the channel
+        pipeline.addLast(handshakeAuthHandler);
+
+        // permessage-deflate negotiation (the observer records it and counts compressed bytes)
+        if (compression.isEnabled()) {
+            pipeline.addLast(compression.negotiationObserver());
+            pipeline.addLast(compression.newExtensionHandler());
+        }
+
         // WebSocket handshake handler
-        pipeline.addLast(new WebSocketServerProtocolHandler("/ws", null, false));
+        pipeline.addLast(new WebSocketServerProtocolHandler("/ws", null, compression.isEnabled()));
+
+        if (compression.isEnabled()) {
+            pipeline.addLast(compression.encodeTimer());
+        }
+
+        // Pings quiet connections and closes the ones that stop answering
+        pipeline.addLast(heartbeatHandler);
 
         // ⭐ FIX: aggregate fragmented WebSocket frames into 1 UTF-8 message
         pipeline.addLast(new io.netty.handler.codec.http.websocketx.WebSocketFrameAggregator(65536));
@@ -0,0 +1,241 @@
+package org.example.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilter;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilterProvider;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
+import io.netty.util.AttributeKey;
+import org.example.config.WebSocketCompressionProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Negotiated permessage-deflate for the WebSocket pipeline.
+ *
+ * <p>When server context takeover is off, every channel compresses each message with a fresh
+ * window, so a broadcast payload can be deflated once here and shared by all channels that
+ * negotiated the extension. The per-channel encoder passes those frames through because RSV1 is already set.
+ */
+@Component
+public class WebSocketCompression {
+    private static final AttributeKey<Boolean> NEGOTIATED = AttributeKey.valueOf("permessageDeflate");
+    private static final String SERVER_NO_CONTEXT = "server_no_context_takeover";
+    private static final byte[] DEFLATE_TAIL = {0x00, 0x00, (byte) 0xff, (byte) 0xff};
+
+    private final WebSocketCompressionProperties properties;
+    private final ThreadLocal<Deflater> deflaters;
+
+    private final Counter uncompressedBytes;
+    private final Counter compressedBytes;
+    // Bytes actually run through a deflater: a shared broadcast counts once however many channels it reaches
+    private final Counter deflatedBytes;
+    private final Timer compressionTime;
+
+    private final ChannelHandler negotiationObserver = new NegotiationObserver();
+    private final ChannelHandler encodeTimer = new EncodeTimer();
+
+    public WebSocketCompression(WebSocketCompressionProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(properties.getLevel(), true));
+        this.uncompressedBytes = Counter.builder("websocket.compression.bytes.in")
+                .description("Payload bytes handed to permessage-deflate")
+                .baseUnit("bytes")
+                .register(registry);
+        this.compressedBytes = Counter.builder("websocket.compression.bytes.out")
+                .description("Payload bytes written after permessage-deflate")
+                .baseUnit("bytes")
+                .register(registry);
+        this.deflatedBytes = Counter.builder("websocket.compression.bytes.deflated")
+                .description("Payload bytes run through a deflater, once per shared broadcast")
+                .baseUnit("bytes")
+                .register(registry);
+        this.compressionTime = Timer.builder("websocket.compression.time")
+                .description("Time spent deflating outbound frames")
+                .register(registry);
+        Gauge.builder("websocket.compression.ratio", this, c -> c.ratio())
+                .description("Compressed / uncompressed payload bytes")
+                .register(registry);
+        Gauge.builder("websocket.compression.nanos.per.byte", this, c -> c.nanosPerByte())
+                .description("Deflate CPU time per uncompressed payload byte")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Pipeline handlers, in order: observer before the extension handler (head side), timer after the protocol handler.
+     */
+    public ChannelHandler negotiationObserver() { return negotiationObserver; }
+    public ChannelHandler encodeTimer() { return encodeTimer; }
+
+    public ChannelHandler newExtensionHandler() {
+        WebSocketExtensionFilterProvider filters = new WebSocketExtensionFilterProvider() {
+            private final WebSocketExtensionFilter small =
+                    frame -> frame.content().readableBytes() < properties.getMinFrameSize();
+
+            @Override
+            public WebSocketExtensionFilter encoderFilter() { return small; }
+
+            @Override
+            public WebSocketExtensionFilter decoderFilter() { return WebSocketExtensionFilter.NEVER_SKIP; }
+        };
+        PerMessageDeflateServerExtensionHandshaker deflate = new PerMessageDeflateServerExtensionHandshaker(
+                properties.getLevel(), false, properties.getClientWindowBits(),
+                true, !properties.isClientContextTakeover(), filters);
+
+        if (properties.isServerContextTakeover()) {
+            return new WebSocketServerExtensionHandler(deflate);
+        }
+        // RFC 7692 lets the server answer with server_no_context_takeover even when the client didn't offer it
+        return new WebSocketServerExtensionHandler(data -> {
+            if (!data.name().equals("permessage-deflate") || data.parameters().containsKey(SERVER_NO_CONTEXT)) {
+                return deflate.handshakeExtension(data);
+            }
+            Map<String, String> parameters = new HashMap<>(data.parameters());
+            parameters.put(SERVER_NO_CONTEXT, null);
+            return deflate.handshakeExtension(new WebSocketExtensionData(data.name(), parameters));
+        });
+    }
+
+    public boolean isNegotiated(Channel channel) {
+        return Boolean.TRUE.equals(channel.attr(NEGOTIATED).get());
+    }
+
+    /**
+     * Whether a payload of this size should be deflated once and shared across channels.
+     */
+    public boolean shouldShare(int payloadBytes) {
+        return properties.isEnabled() && properties.isSharedBroadcast() && !properties.isServerContextTakeover()
+                && payloadBytes >= properties.getMinFrameSize();
+    }
+
+    /**
+     * Deflates the readable bytes of the payload as one no-context-takeover message.
+     */
+    public ByteBuf compressShared(ByteBuf payload, ByteBufAllocator allocator) {
+        long start = System.nanoTime();
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(payload.nioBuffer());
+
+        ByteBuf out = allocator.heapBuffer(payload.readableBytes() / 2 + 64);
+        while (true) {
+            out.ensureWritable(256);
+            ByteBuffer target = out.nioBuffer(out.writerIndex(), out.writableBytes());
+            int written = deflater.deflate(target, Deflater.SYNC_FLUSH);
+            out.writerIndex(out.writerIndex() + written);
+            if (written < target.capacity()) {
+                break;
+            }
+        }
+        // permessage-deflate drops the trailing empty stored block of the sync flush
+        if (out.readableBytes() >= DEFLATE_TAIL.length && endsWithTail(out)) {
+            out.writerIndex(out.writerIndex() - DEFLATE_TAIL.length);
+        }
+        compressionTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        deflatedBytes.increment(payload.readableBytes());
+        return out;
+    }
+
+    /**
+     * Accounts for a shared compressed frame written to one channel, for the compression ratio. The deflate
+     * work itself was counted once by {@link #compressShared}.
+     */
+    public void recordShared(int uncompressedSize) {
+        uncompressedBytes.increment(uncompressedSize);
+    }
+
+    private static boolean endsWithTail(ByteBuf buf) {
+        int start = buf.writerIndex() - DEFLATE_TAIL.length;
+        for (int i = 0; i < DEFLATE_TAIL.length; i++) {
+            if (buf.getByte(start + i) != DEFLATE_TAIL[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double ratio() {
+        double in = uncompressedBytes.count();
+        return in == 0 ? 0 : compressedBytes.count() / in;
+    }
+
+    private double nanosPerByte() {
+        double in = deflatedBytes.count();
+        return in == 0 ? 0 : compressionTime.totalTime(TimeUnit.NANOSECONDS) / in;
+    }
+
+    private static boolean isDataFrame(Object msg) {
+        return msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame;
+    }
+
+    /**
+     * Sits on the head side of the extension handler: sees the handshake response with the
+     * negotiated extensions, and every frame after compression.
+     */
+    @ChannelHandler.Sharable
+    private class NegotiationObserver extends ChannelOutboundHandlerAdapter {
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof HttpResponse response) {
+                String extensions = response.headers().get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS);
+                if (extensions != null && extensions.contains("permessage-deflate")) {
+                    ctx.channel().attr(NEGOTIATED).set(Boolean.TRUE);
+                }
+            } else if (isDataFrame(msg) && (((WebSocketFrame) msg).rsv() & WebSocketExtension.RSV1) != 0) {
+                compressedBytes.increment(((WebSocketFrame) msg).content().readableBytes());
+            }
+            super.write(ctx, msg, promise);
+        }
+    }
+
+    /**
+     * Sits on the tail side of the per-channel deflate encoder and times frames that it will compress.
+     */
+    @ChannelHandler.Sharable
+    private class EncodeTimer extends ChannelOutboundHandlerAdapter {
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (!isDataFrame(msg) || !isNegotiated(ctx.channel())) {
+                super.write(ctx, msg, promise);
+                return;
+            }
+            WebSocketFrame frame = (WebSocketFrame) msg;
+            int size = frame.content().readableBytes();
+            if ((frame.rsv() & WebSocketExtension.RSV1) != 0 || size < properties.getMinFrameSize()) {
+                super.write(ctx, msg, promise);
+                return;
+            }
+            long start = System.nanoTime();
+            super.write(ctx, msg, promise);
+            compressionTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            uncompressedBytes.increment(size);
+            deflatedBytes.increment(size);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.service;
+
+import io.netty.channel.EventLoop;
+import org.example.metrics.RoomInputLatency;
+import org.example.model.GameState;
+import org.example.server.PlayerSession;
+import org.example.simulation.GameSimulation;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One running match: its simulation plus the sessions that receive its snapshots and events.
+ * Rooms started from a lobby use the lobby id as room id so the lobby can be destroyed when the match ends.
+ *
+ * <p>A room steps at its simulation's own rate and sends a snapshot every {@code snapshotDivider} steps.
+ * Under load the divider is raised one level at a time, up to {@code maxSnapshotDivider}, and lowered back
+ * to its base when load drops.
+ */
+public class GameRoom {
+    // A room that fell further behind than this drops the backlog instead of fast-forwarding
+    private static final int MAX_CATCH_UP_STEPS = 4;
+
+    private final String id;
+    private final String lobbyId;
+    private final GameSimulation simulation;
+    private final Map<String, PlayerSession> sessions;
+    private final RoomInputLatency inputLatency;
+    private final RoomEvents events;
+    private final long stepNanos;
+    private final int baseSnapshotDivider;
+    private final int maxSnapshotDivider;
+    private volatile int snapshotDivider;
+    private long lastStepNanos;
+    private int stepsSinceSnapshot;
+    // Smoothed cost of one pass over this room (steps plus snapshot)
+    private volatile long costNanos;
+    // Where the room ticks; managed by RoomScheduler under the room's monitor
+    private Runnable tickTask;
+    private volatile EventLoop eventLoop;
+    private ScheduledFuture<?> tickFuture;
+
+    public GameRoom(String id, String lobbyId, GameSimulation simulation, int snapshotDivider, int maxSnapshotDivider,
+                    RoomInputLatency inputLatency, RoomEvents events) {
+        this.id = id;
+        this.lobbyId = lobbyId;
+        this.simulation = simulation;
+        this.sessions = new ConcurrentHashMap<>();
+        this.inputLatency = inputLatency;
+        this.events = events;
+        this.stepNanos = TimeUnit.MILLISECONDS.toNanos(simulation.getStepMs());
+        this.baseSnapshotDivider = Math.max(1, snapshotDivider);
+        this.maxSnapshotDivider = Math.max(this.baseSnapshotDivider, maxSnapshotDivider);
+        this.snapshotDivider = this.baseSnapshotDivider;
+    }
+
+    public void addSession(PlayerSession session) {
+        sessions.put(session.getSessionId(), session);
+    }
+
+    public PlayerSession removeSession(String sessionId) {
+        return sessions.remove(sessionId);
+    }
+
+    public PlayerSession getSession(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    public Collection<PlayerSession> getSessions() {
+        return sessions.values();
+    }
+
+    public boolean isEmpty() {
+        return sessions.isEmpty();
+    }
+
+    /**
+     * Fixed-step clock: how many simulation steps are due at {@code nowNanos}. Wall-clock time
+     * only decides when steps run, never how far one step advances the world.
+     */
+    public int stepsDue(long nowNanos) {
+        if (lastStepNanos == 0) {
+            lastStepNanos = nowNanos;
+            return 1;
+        }
+        long due = (nowNanos - lastStepNanos) / stepNanos;
+        if (due > MAX_CATCH_UP_STEPS) {
+            lastStepNanos = nowNanos;
+            return MAX_CATCH_UP_STEPS;
+        }
+        lastStepNanos += due * stepNanos;
+        return (int) due;
+    }
+
+    /**
+     * Counts steps just run; true when enough have passed since the last snapshot to send another.
+     */
+    public boolean snapshotDue(int steps) {
+        stepsSinceSnapshot += steps;
+        if (stepsSinceSnapshot < snapshotDivider) {
+            return false;
+        }
+        stepsSinceSnapshot = 0;
+        return true;
+    }
+
+    public void recordCost(long nanos) {
+        long previous = costNanos;
+        costNanos = previous == 0 ? nanos : previous - (previous >> 3) + (nanos >> 3);
+    }
+
+    /**
+     * Sends snapshots one step less often. Returns false if the room is already at its lowest snapshot rate.
+     */
+    public boolean stepDown() {
+        if (snapshotDivider >= maxSnapshotDivider) {
+            return false;
+        }
+        snapshotDivider++;
+        return true;
+    }
+
+    /**
+     * Undoes one {@link #stepDown}. Returns false if the room is already at its configured rate.
+     */
+    public boolean restore() {
+        if (snapshotDivider <= baseSnapshotDivider) {
+            return false;
+        }
+        snapshotDivider--;
+        return true;
+    }
+
+    public boolean canStepDown() { return snapshotDivider < maxSnapshotDivider; }
+    public boolean isDegraded() { return snapshotDivider > baseSnapshotDivider; }
+    public int getSnapshotDivider() { return snapshotDivider; }
+    public int getBaseSnapshotDivider() { return baseSnapshotDivider; }
+    public long getCostNanos() { return costNanos; }
+    public long getStepNanos() { return stepNanos; }
+    public EventLoop getEventLoop() { return eventLoop; }
+
+    Runnable getTickTask() { return tickTask; }
+    void setTickTask(Runnable tickTask) { this.tickTask = tickTask; }
+    void setEventLoop(EventLoop eventLoop) { this.eventLoop = eventLoop; }
+    ScheduledFuture<?> getTickFuture() { return tickFuture; }
+    void setTickFuture(ScheduledFuture<?> tickFuture) { this.tickFuture = tickFuture; }
+
+    public String getId() { return id; }
+    public String getLobbyId() { return lobbyId; }
+    public GameSimulation getSimulation() { return simulation; }
+    public GameState getGameState() { return simulation.getState(); }
+    public RoomInputLatency getInputLatency() { return inputLatency; }
+
+    public RoomEvents getEvents() { return events; }
+}
@@ -1,22 +1,37 @@
 package org.example.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.example.entity.PlayerEntity;
+import io.netty.channel.EventLoop;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.config.ArenaProperties;
+import org.example.jfr.GameTickEvent;
+import org.example.journal.MatchJournal;
+import org.example.metrics.GameMetrics;
 import org.example.model.*;
 import org.example.server.ConnectionManager;
+import org.example.server.PlayerSession;
+import org.example.server.SnapshotBudget;
+import org.example.server.SnapshotEncoder;
+import org.example.simulation.GameEvent;
+import org.example.simulation.GameSimulation;
+import org.example.simulation.TickInput;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import io.netty.channel.Channel;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
 
 @Service
 public class GameService {
-    private static final int GAME_WIDTH = 800;
-    private static final int GAME_HEIGHT = 600;
-    private static final long SHOT_COOLDOWN = 200; // milliseconds
+    private static final String DEFAULT_ROOM_ID = "default";
     
     @Autowired
     private LeaderboardService leaderboardService;
@@ -27,291 +42,576 @@ public class GameService {
     @Autowired
     private LobbiesService lobbiesService;
     
+    @Autowired
+    private GameMetrics metrics;
+    
+    @Autowired
+    private MatchJournal matchJournal;
+    
+    @Autowired
+    private TickBudget tickBudget;
+    
+    @Autowired
+    private RoomScheduler roomScheduler;
+    
+    @Autowired
+    private ArenaProperties arenaProperties;
+    
+    @Value("${game.tick.simulation-hz:60}")
+    private int simulationHz;
+    
+    // Simulation rate for rooms opened while the loop is over its budget
+    @Value("${game.tick.degraded-simulation-hz:30}")
+    private int degradedSimulationHz;
+    
+    @Value("${game.tick.snapshot-hz:30}")
+    private int snapshotHz;
+    
+    // Lowest snapshot rate the tick budget may push a room down to
+    @Value("${game.tick.min-snapshot-hz:10}")
+    private int minSnapshotHz;
+    
+    // How far back hit detection may rewind to match a lagging shooter's view
+    @Value("${game.lag-compensation.max-rewind-ms:200}")
+    private long maxRewindMs;
+    
+    // Snapshot bytes (before compression) each client may receive per second; 0 for no limit
+    @Value("${game.snapshot.client-bytes-per-second:65536}")
+    private long clientBytesPerSecond;
+    
+    // Events each room keeps for clients to RESYNC from before they need a fresh baseline
+    @Value("${game.events.replay-capacity:1024}")
+    private int eventReplayCapacity;
+    
+    // Rooms with at least this many ships and bullets split bullet work across the simulation pool; 0 never does
+    @Value("${game.parallel.threshold:1000}")
+    private int parallelThreshold;
+    
+    // Simulation pool threads, 0 for one per core
+    @Value("${game.parallel.threads:0}")
+    private int parallelThreads;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private Map<String, ClientSession> sessions;
-    private GameState gameState;
-    private Map<String, Long> lastShotTime;
-    private long lastUpdateTime;
-    private String currentLobbyId; // Track which lobby started this game
+    private final Map<String, GameRoom> rooms;
+    // Match results are written to the database off the event loops that tick rooms
+    private final ExecutorService statsWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "game-stats-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Created with the first room that may need it
+    private ForkJoinPool simulationPool;
     
     public GameService() {
-        this.sessions = new ConcurrentHashMap<>();
-        this.gameState = new GameState();
-        this.lastShotTime = new ConcurrentHashMap<>();
-        this.lastUpdateTime = System.currentTimeMillis();
+        this.rooms = new ConcurrentHashMap<>();
     }
 
-    public void addPlayerToGame(String sessionId, String username, Channel ct, String lobbyId) {
-        // Reset game state if starting a new game
-        if (gameState.isGameOver() || gameState.getSpaceships().isEmpty()) {
-            gameState = new GameState();
-            lastShotTime.clear();
-            leaderboardService.broadcastLeaderboard();
-            currentLobbyId = lobbyId; // Track which lobby started this game
-            System.out.println("Starting new game from lobby: " + lobbyId);
+    /**
+     * Starts a match for all given players at once: one room, one spawn pass,
+     * one event baseline and one initial snapshot, all sent to the room only.
+     */
+    public GameRoom startMatch(String lobbyId, List<PlayerSession> players) {
+        if (players.isEmpty()) {
+            throw new IllegalStateException("No connected players to start a match with");
+        }
+        GameRoom room = newRoom(lobbyId != null ? lobbyId : UUID.randomUUID().toString(), lobbyId);
+        for (PlayerSession player : players) {
+            removePlayer(player);
+        }
+        rooms.put(room.getId(), room);
+
+        List<String> playerIds = new ArrayList<>(players.size());
+        for (PlayerSession player : players) {
+            room.addSession(player);
+            player.setRoom(room);
+            playerIds.add(player.getSessionId());
         }
+        room.getSimulation().spawnAll(playerIds);
+        roomScheduler.schedule(room, () -> tickRoom(room));
 
-        // Track this player's session so we can determine winners/losers later
-        sessions.put(sessionId, new ClientSession(sessionId, username));
+        System.out.println("Starting match " + room.getId() + " with " + players.size() + " players (seed "
+                + room.getSimulation().getSeed() + ")");
 
-        // Create spaceship at random position
-        Random random = new Random();
-        double x = 100 + random.nextDouble() * (GAME_WIDTH - 200);
-        double y = 100 + random.nextDouble() * (GAME_HEIGHT - 200);
-        
-        Spaceship spaceship = new Spaceship(sessionId, x, y);
-        gameState.addSpaceship(spaceship);
+        for (PlayerSession player : players) {
+            sendPlayerInfo(player);
+        }
+        sendBaseline(room, room.getSessions());
+        flushEvents(room);
+        broadcastGameState(room);
+        return room;
+    }
+
+    public void addPlayerToGame(PlayerSession player, String lobbyId) {
+        String roomId = lobbyId != null ? lobbyId : DEFAULT_ROOM_ID;
+        removePlayer(player);
+
+        // Reset the room if its previous game is finished
+        GameRoom room = rooms.compute(roomId, (id, existing) -> {
+            if (existing != null && !existing.getGameState().isGameOver()) {
+                return existing;
+            }
+            if (existing != null) {
+                discardRoom(existing);
+            }
+            return newRoom(id, lobbyId);
+        });
+
+        String sessionId = player.getSessionId();
+        room.addSession(player);
+        player.setRoom(room);
+
+        // Create spaceship at a random position from the room's seeded generator
+        Spaceship spaceship = room.getSimulation().spawn(sessionId);
+        roomScheduler.schedule(room, () -> tickRoom(room));
         
-        System.out.println("Player added: " + username + " (Session: " + sessionId + ") at (" + x + ", " + y + ")");
-        System.out.println("Total players in game: " + gameState.getSpaceships().size());
+        System.out.println("Player added: " + player.getUsername() + " (Session: " + sessionId + ") at ("
+                + spaceship.getX() + ", " + spaceship.getY() + ")");
+        System.out.println("Total players in room " + roomId + ": " + room.getGameState().getSpaceships().size());
         
-        // Send player info via Netty
-        sendPlayerInfo(sessionId, sessionId, username);
-        broadcastGameState();
-        broadCastNotification(connectionManager.getUsername(sessionId),ct);
+        // The room learns of the join from the event stream; the newcomer starts from a baseline that includes
+        // it, queued ahead of the events so it gets the baseline first
+        Map<String, Object> joined = new LinkedHashMap<>();
+        joined.put("ship", spaceship.getId());
+        joined.put("username", player.getUsername());
+        sendPlayerInfo(player);
+        sendBaseline(room, List.of(player));
+        flushEvents(room);
+        publish(room, "JOIN", joined);
+        broadcastGameState(room);
+    }
+    
+    /**
+     * Numbers the event and sends it to everyone in the room, both on the room's event loop, so events
+     * published from any thread go out in sequence order.
+     */
+    private void publish(GameRoom room, String event, Map<String, Object> fields) {
+        onRoomLoop(room, () -> publishNow(room, event, room.getGameState().getTick(), fields));
+    }
+
+    private void publishNow(GameRoom room, String event, long tick, Map<String, Object> fields) {
+        sendToRoom(room, room.getEvents().append(event, tick, fields));
+    }
+    
+    /**
+     * Publishes the events the simulation queued since the last flush. The simulation only queues them, so
+     * nothing is sent while its monitor is held; draining on the room's loop keeps them in order with the
+     * room's other events.
+     */
+    private void flushEvents(GameRoom room) {
+        onRoomLoop(room, () -> {
+            for (GameEvent event : room.getSimulation().drainEvents()) {
+                publish(room, event);
+            }
+        });
     }
-    public void broadCastNotification(String name,Channel ct){
-        if (connectionManager.getConnectionCount() == 0) {
-            return; // No connections to broadcast to
+    
+    private void publish(GameRoom room, GameEvent event) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("ship", event.ship());
+        switch (event.type()) {
+            case SPAWN -> fields.put("health", event.value());
+            case DAMAGE -> {
+                fields.put("by", event.by());
+                fields.put("health", event.value());
+            }
+            case DEATH -> fields.put("by", event.by());
+            case SCORE -> fields.put("score", event.value());
         }
-        Map<String, Object> message = new HashMap<>();
-        message.put("type", "NOTIFICATION");
-        message.put("data", name+"has joined the game");
-        System.out.println(" player " + name + " has joined the game");
-        connectionManager.broadCastEveryoneElse(message,objectMapper, ct);
+        publishNow(room, event.type().name(), event.tick(), fields);
+    }
+    
+    /**
+     * Sends the targets an EVENT_BASELINE: the room's discrete state (who is in it, and each ship's health,
+     * score and whether it is alive) as of the latest event, for a client to apply later events on top of.
+     * Built on the room's event loop, away from the tick, and under the simulation's monitor, away from joins
+     * and leaves. The sequence number is read first: state changes precede their events, so the state then
+     * reflects at least every event up to it.
+     */
+    private void sendBaseline(GameRoom room, Collection<PlayerSession> targets) {
+        onRoomLoop(room, () -> connectionManager.sendToSessions(targets, baseline(room), objectMapper));
     }
-    private void broadcastGameState() {
-        if (connectionManager.getConnectionCount() == 0) {
-            return; // No connections to broadcast to
+    
+    private Map<String, Object> baseline(GameRoom room) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        synchronized (room.getSimulation()) {
+            data.put("seq", room.getEvents().getLastSeq());
+            List<Map<String, Object>> ships = new ArrayList<>();
+            GameState state = room.getGameState();
+            for (Spaceship spaceship : state.getSpaceships().values()) {
+                PlayerSession session = room.getSession(spaceship.getPlayerId());
+                Map<String, Object> ship = new LinkedHashMap<>();
+                ship.put("ship", spaceship.getId());
+                ship.put("username", session != null ? session.getUsername() : null);
+                ship.put("health", spaceship.getHealth());
+                ship.put("score", spaceship.getScore());
+                ship.put("alive", spaceship.isAlive());
+                ships.add(ship);
+            }
+            data.put("ships", ships);
         }
         Map<String, Object> message = new HashMap<>();
-        message.put("type", "GAME_STATE");
-        message.put("data", gameState);
-//        System.out.println("Broadcasting game state to " + connectionManager.getConnectionCount() + " connections - Spaceships: " + gameState.getSpaceships().size());
-        connectionManager.broadcast(message, objectMapper);
+        message.put("type", "EVENT_BASELINE");
+        message.put("data", data);
+        return message;
     }
-    private void sendPlayerInfo(String sessionId, String playerId, String username) {
-        Map<String, Object> info = new HashMap<>();
-        info.put("type", "PLAYER_INFO");
-        Map<String, Object> data = new HashMap<>();
-        data.put("playerId", playerId);
-        data.put("username", username);
-        info.put("data", data);
-        connectionManager.sendToSession(sessionId, info, objectMapper);
+    
+    /**
+     * Resends the player's room events after {@code afterSeq}, or a new baseline if some have left the log.
+     * Runs on the room's event loop, so the resent events can't overtake newer ones.
+     */
+    public void resyncEvents(PlayerSession player, long afterSeq) {
+        GameRoom room = player.getRoom();
+        if (room == null) return;
+        onRoomLoop(room, () -> {
+            List<Map<String, Object>> missed = room.getEvents().since(afterSeq);
+            if (missed == null) {
+                sendBaseline(room, List.of(player));
+                return;
+            }
+            for (Map<String, Object> message : missed) {
+                connectionManager.sendToSession(player, message, objectMapper);
+            }
+        });
     }
     
-    public void removePlayer(String sessionId) {
-        ClientSession session = sessions.remove(sessionId);
-        Spaceship spaceship = gameState.getSpaceships().get(sessionId);
-        if (spaceship != null && session != null) {
-            boolean won = spaceship.isAlive() && gameState.getSpaceships().size() == 1;
-            leaderboardService.updatePlayerStats(session.getUsername(), spaceship.getScore(), won);
-        }
-        gameState.removeSpaceship(sessionId);
-        lastShotTime.remove(sessionId);
-        broadcastGameState();
+    private void sendToRoom(GameRoom room, Object message) {
+        connectionManager.sendToSessions(room.getSessions(), message, objectMapper);
     }
     
-    public void handlePlayerInput(String sessionId, PlayerInput input) {
-        Spaceship spaceship = gameState.getSpaceships().get(sessionId);
-        if (spaceship == null || !spaceship.isAlive()) return;
-        
-        double speed = 3.0;
-        double rotationSpeed = 5.0;
-        
-        // Movement
-        if (input.isMoveUp()) {
-            double radians = Math.toRadians(spaceship.getAngle());
-            spaceship.move(Math.cos(radians) * speed, Math.sin(radians) * speed);
-        }
-        if (input.isMoveDown()) {
-            double radians = Math.toRadians(spaceship.getAngle());
-            spaceship.move(-Math.cos(radians) * speed, -Math.sin(radians) * speed);
+    /**
+     * A snapshot outside the tick, after a join or leave. It goes through each client's budget like the
+     * tick's own, so every entity a client is sent is tracked and later reported gone. Encoding reads the
+     * ships and bullets the tick mutates, so it runs on the room's event loop.
+     */
+    private void broadcastGameState(GameRoom room) {
+        onRoomLoop(room, () -> sendSnapshot(room));
+    }
+    
+    /**
+     * Copies the room's entities into a snapshot frame. Joins and leaves add and remove ships from other
+     * threads under the simulation's monitor, so the copy holds it too; the frame is then used without it.
+     */
+    private SnapshotEncoder.Frame encode(GameRoom room) {
+        synchronized (room.getSimulation()) {
+            return SnapshotEncoder.frame(room.getGameState());
         }
-        if (input.isMoveLeft()) {
-            double radians = Math.toRadians(spaceship.getAngle() - 90);
-            spaceship.move(Math.cos(radians) * speed, Math.sin(radians) * speed);
+    }
+    
+    /**
+     * Runs the task on the event loop that ticks the room, or right away on a room that isn't ticking.
+     * A room moved to another loop in the meantime passes the task on to its new loop.
+     */
+    private void onRoomLoop(GameRoom room, Runnable task) {
+        EventLoop loop = room.getEventLoop();
+        if (loop == null || loop.inEventLoop()) {
+            task.run();
+            return;
         }
-        if (input.isMoveRight()) {
-            double radians = Math.toRadians(spaceship.getAngle() + 90);
-            spaceship.move(Math.cos(radians) * speed, Math.sin(radians) * speed);
+        loop.execute(() -> onRoomLoop(room, task));
+    }
+    
+    /**
+     * The tick's snapshot, within each client's byte budget. Clients it fits share one full payload; the
+     * rest get a partial snapshot of their most relevant entities, and clients whose channel is still backed
+     * up skip this one. The final snapshot of a match always goes out in full.
+     */
+    private void sendSnapshot(GameRoom room) {
+        if (room.isEmpty()) {
+            return;
         }
-        
-        // Rotation
-        if (input.isRotateLeft()) {
-            spaceship.rotate(-rotationSpeed);
+        GameState state = room.getGameState();
+        SnapshotEncoder.Frame frame = encode(room);
+        long periodNanos = room.getStepNanos() * room.getSnapshotDivider();
+        int budget = clientBytesPerSecond <= 0 || state.isGameOver() ? Integer.MAX_VALUE
+                : (int) Math.min(Integer.MAX_VALUE, clientBytesPerSecond * periodNanos / 1_000_000_000L);
+
+        List<PlayerSession> full = new ArrayList<>();
+        for (PlayerSession session : room.getSessions()) {
+            SnapshotBudget clientBudget = session.getSnapshotBudget();
+            int allowance = budget == Integer.MAX_VALUE ? budget
+                    : clientBudget.allowance(budget, session.getChannel().isWritable());
+            if (allowance == 0) {
+                metrics.recordSkippedSnapshot();
+            } else if (frame.getBytes() <= allowance) {
+                clientBudget.sentAll(room, frame);
+                full.add(session);
+            } else {
+                Spaceship own = state.getSpaceships().get(session.getSessionId());
+                Map<String, Object> message = new HashMap<>();
+                message.put("type", "GAME_STATE");
+                message.put("data", clientBudget.select(room, frame, own != null ? own.getId() : -1, allowance));
+                connectionManager.sendToSession(session, message, objectMapper);
+                metrics.recordPartialSnapshot();
+            }
         }
-        if (input.isRotateRight()) {
-            spaceship.rotate(rotationSpeed);
+        if (!full.isEmpty()) {
+            Map<String, Object> message = new HashMap<>();
+            message.put("type", "GAME_STATE");
+            message.put("data", frame.data());
+            connectionManager.sendToSessions(full, message, objectMapper);
         }
-        
-        // Shooting
-        if (input.isShoot()) {
-            long currentTime = System.currentTimeMillis();
-            Long lastShot = lastShotTime.get(sessionId);
-            
-            if (lastShot == null || (currentTime - lastShot) >= SHOT_COOLDOWN) {
-                shootBullet(sessionId, spaceship);
-                lastShotTime.put(sessionId, currentTime);
+        room.getInputLatency().recordSnapshot();
+    }
+    private void sendPlayerInfo(PlayerSession player) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("type", "PLAYER_INFO");
+        Map<String, Object> data = new HashMap<>();
+        data.put("playerId", player.getSessionId());
+        data.put("username", player.getUsername());
+        GameRoom room = player.getRoom();
+        if (room != null) {
+            Spaceship spaceship = room.getGameState().getSpaceships().get(player.getSessionId());
+            if (spaceship != null) {
+                data.put("shipId", spaceship.getId());
             }
+            // Lets the client predict its ship locally and reconcile against lastInputSeq in each snapshot
+            data.put("rules", room.getSimulation().describeRules());
+            data.put("snapshot", SnapshotEncoder.describe());
+            // Snapshot period when the room isn't degraded
+            data.put("snapshotPeriodMs", room.getSimulation().getStepMs() * room.getBaseSnapshotDivider());
         }
-        
-        // Keep spaceship in bounds
-        if (spaceship.getX() < 0) spaceship.setX(0);
-        if (spaceship.getX() > GAME_WIDTH) spaceship.setX(GAME_WIDTH);
-        if (spaceship.getY() < 0) spaceship.setY(0);
-        if (spaceship.getY() > GAME_HEIGHT) spaceship.setY(GAME_HEIGHT);
+        info.put("data", data);
+        connectionManager.sendToSession(player, info, objectMapper);
     }
     
-    private void shootBullet(String playerId, Spaceship spaceship) {
-        double bulletSpeed = 8.0;
-        double angle = spaceship.getAngle();
-        double radians = Math.toRadians(angle);
-        
-        // Calculate bullet starting position (front of spaceship)
-        double startX = spaceship.getX() + Math.cos(radians) * 25;
-        double startY = spaceship.getY() + Math.sin(radians) * 25;
-        
-        Bullet bullet = new Bullet(
-            UUID.randomUUID().toString(),
-            playerId,
-            startX,
-            startY,
-            angle,
-            bulletSpeed
-        );
-        
-        gameState.addBullet(bullet);
+    public void removePlayer(PlayerSession player) {
+        GameRoom room = player.getRoom();
+        if (room == null) {
+            return;
+        }
+        player.setRoom(null);
+        String sessionId = player.getSessionId();
+        GameState gameState = room.getGameState();
+        PlayerSession session = room.removeSession(sessionId);
+        boolean won = gameState.getSpaceships().size() == 1;
+        Spaceship spaceship = room.getSimulation().remove(sessionId);
+        if (spaceship != null && session != null && !gameState.isGameOver()) {
+            recordResult(session.getUsername(), spaceship.getScore(), won && spaceship.isAlive());
+        }
+        if (spaceship != null && !room.isEmpty()) {
+            publish(room, "LEAVE", Map.of("ship", spaceship.getId()));
+        }
+        if (room.isEmpty()) {
+            if (rooms.remove(room.getId(), room)) {
+                discardRoom(room);
+            }
+        } else {
+            broadcastGameState(room);
+        }
     }
     
-    @Scheduled(fixedRate = 16) // ~60 FPS
-    public void gameLoop() {
-        long currentTime = System.currentTimeMillis();
-        long deltaTime = currentTime - lastUpdateTime;
-        lastUpdateTime = currentTime;
-        
-        // Update game state
-        updateGame(deltaTime);
-        
-        // Broadcast game state via Netty
-        broadcastGameState();
+    /**
+     * Queues the input on the player's room; it is applied at the start of the room's next step.
+     */
+    public void handlePlayerInput(PlayerSession player, PlayerInput input) {
+        GameRoom room = player.getRoom();
+        if (room == null) return;
+        room.getSimulation().submit(player.getSessionId(), input);
     }
     
-    private void updateGame(long deltaTime) {
-        // Update bullets
-        gameState.update(deltaTime);
-        
-        // Check collisions
-        checkCollisions();
+    @PostConstruct
+    public void registerGauges() {
+        metrics.gauge("game.rooms.active", "Rooms currently simulated", rooms, Map::size);
+        metrics.gauge("game.ships", "Spaceships across all rooms", this,
+                service -> service.countEntities(state -> state.getSpaceships().size()));
+        metrics.gauge("game.bullets", "Bullets across all rooms", this,
+                service -> service.countEntities(state -> state.getBullets().size()));
+        metrics.gauge("game.rooms.degraded", "Rooms sending snapshots below their configured rate", rooms,
+                all -> all.values().stream().filter(GameRoom::isDegraded).count());
     }
     
-    private void checkCollisions() {
-        List<Bullet> bullets = new ArrayList<>(gameState.getBullets());
-        
-        for (Bullet bullet : bullets) {
-            if (!bullet.isActive()) continue;
-            
-            // Check collision with spaceships
-            for (Spaceship spaceship : gameState.getSpaceships().values()) {
-                if (!spaceship.isAlive() || spaceship.getPlayerId().equals(bullet.getShooterId())) {
-                    continue;
-                }
-                
-                double dx = bullet.getX() - spaceship.getX();
-                double dy = bullet.getY() - spaceship.getY();
-                double distance = Math.sqrt(dx * dx + dy * dy);
-                
-                if (distance < 20) { // Collision radius
-                    spaceship.takeDamage(10);
-                    bullet.setActive(false);
-                    
-                    if (!spaceship.isAlive()) {
-                        // Find shooter and give points
-                        Spaceship shooter = gameState.getSpaceships().get(bullet.getShooterId());
-                        if (shooter != null) {
-                            shooter.addScore(100);
-                        }
-                        
-                        // Check if game is over (only one player left alive)
-                        checkGameOver();
-                    }
-                }
+    @PreDestroy
+    public void shutdown() {
+        // Let queued match results reach the database
+        statsWriter.shutdown();
+        synchronized (this) {
+            if (simulationPool != null) {
+                simulationPool.shutdown();
             }
         }
     }
     
+    private synchronized ForkJoinPool simulationPool() {
+        if (simulationPool == null) {
+            int threads = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+            simulationPool = new ForkJoinPool(threads, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("game-simulation-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        return simulationPool;
+    }
 
+    private double countEntities(ToIntFunction<GameState> count) {
+        int total = 0;
+        for (GameRoom room : rooms.values()) {
+            total += count.applyAsInt(room.getGameState());
+        }
+        return total;
+    }
     
-    private void checkGameOver() {
-        // Count alive players
-        long aliveCount = gameState.getSpaceships().values().stream()
-                .filter(Spaceship::isAlive)
-                .count();
+    /**
+     * One tick of a room, run by the {@link RoomScheduler} on the room's event loop at its step rate.
+     */
+    private void tickRoom(GameRoom room) {
+        long tickStart = System.nanoTime();
+        int steps = room.stepsDue(tickStart);
+        if (steps == 0) {
+            return; // Scheduler ran early; nothing is due
+        }
+        metrics.beginTick();
+
+        GameTickEvent tickEvent = new GameTickEvent();
+        tickEvent.begin();
+
+        // Advance the simulation in fixed steps
+        for (int i = 0; i < steps && !room.getGameState().isGameOver(); i++) {
+            step(room);
+        }
+        flushEvents(room);
         
-        if (aliveCount <= 1 && !gameState.isGameOver()) {
-            // Game over - find winner
-            Spaceship winner = gameState.getSpaceships().values().stream()
-                    .filter(Spaceship::isAlive)
-                    .findFirst()
-                    .orElse(null);
-            
-            if (winner != null) {
-                ClientSession winnerSession = sessions.get(winner.getPlayerId());
-                if (winnerSession != null) {
-                    gameState.setGameOver(true);
-                    gameState.setWinnerId(winner.getPlayerId());
-                    gameState.setWinnerUsername(winnerSession.getUsername());
-                    
-                    // Update leaderboard - winner gets a win
-                    leaderboardService.updatePlayerStats(winnerSession.getUsername(), winner.getScore(), true);
-                    
-                    // Update leaderboard for all losers
-                    for (Spaceship spaceship : gameState.getSpaceships().values()) {
-                        if (!spaceship.isAlive() && !spaceship.getPlayerId().equals(winner.getPlayerId())) {
-                            ClientSession loserSession = sessions.get(spaceship.getPlayerId());
-                            if (loserSession != null) {
-                                leaderboardService.updatePlayerStats(loserSession.getUsername(), spaceship.getScore(), false);
-                            }
-                        }
-                    }
-                    
-                    System.out.println("Game Over! Winner: " + winnerSession.getUsername() + " with score: " + winner.getScore());
-                    broadcastGameState(); // Broadcast final state
-                    
-                    // Destroy the lobby that started this game
-                    if (currentLobbyId != null) {
-                        lobbiesService.findById(currentLobbyId).ifPresent(lobby -> {
-                            lobbiesService.removeLobby(lobby);
-                            // Broadcast lobby removal to all clients
-                            Map<String, Object> message = new HashMap<>();
-                            message.put("type", "LOBBY_REMOVED");
-                            Map<String, Object> data = new HashMap<>();
-                            data.put("lobbyId", currentLobbyId);
-                            message.put("data", data);
-                            connectionManager.broadcast(message, objectMapper);
-                            System.out.println("Lobby " + currentLobbyId + " destroyed after game ended");
-                        });
-                        currentLobbyId = null;
-                    }
-                }
-            }
+        // Broadcast game state via Netty at the room's snapshot rate; the final state always goes out
+        if (room.snapshotDue(steps) || room.getGameState().isGameOver()) {
+            sendSnapshot(room);
+        }
+
+        if (tickEvent.shouldCommit()) {
+            GameState state = room.getGameState();
+            tickEvent.room = room.getId();
+            tickEvent.tick = state.getTick();
+            tickEvent.ships = state.getSpaceships().size();
+            tickEvent.bullets = state.getBullets().size();
+            tickEvent.commit();
+        }
+
+        long duration = System.nanoTime() - tickStart;
+        room.recordCost(duration);
+        metrics.recordTick(duration, room.getStepNanos());
+
+        // A finished match has sent its final state; announce the result after it and stop simulating
+        if (room.getGameState().isGameOver()) {
+            publishResult(room);
+            closeRoom(room);
         }
     }
     
-    public GameState getGameState() {
-        return gameState;
+    private void recordResult(String username, int score, boolean won) {
+        statsWriter.execute(() -> leaderboardService.updatePlayerStats(username, score, won));
     }
     
-    private static class ClientSession {
-        private String sessionId;
-        private String username;
-        
-        public ClientSession(String sessionId, String username) {
-            this.sessionId = sessionId;
-            this.username = username;
+    private void step(GameRoom room) {
+        GameSimulation simulation = room.getSimulation();
+        List<TickInput> inputs = simulation.drainInputs();
+        boolean wasOver = simulation.getState().isGameOver();
+        simulation.step(inputs);
+
+        for (TickInput input : inputs) {
+            if (input.input().getReceivedAtNanos() != 0) {
+                room.getInputLatency().recordApplied(input.input().getReceivedAtNanos());
+            }
         }
-        
-        public String getSessionId() { return sessionId; }
-        public String getUsername() { return username; }
+        if (!wasOver && simulation.getState().isGameOver()) {
+            onGameOver(room);
+        }
+    }
+    
+    private void onGameOver(GameRoom room) {
+        GameState gameState = room.getGameState();
+        String winnerId = gameState.getWinnerId();
+        PlayerSession winnerSession = winnerId != null ? room.getSession(winnerId) : null;
+        if (winnerSession != null) {
+            gameState.setWinnerUsername(winnerSession.getUsername());
+        }
+
+        // Update leaderboard - the winner gets a win, everyone else a loss
+        for (Spaceship spaceship : gameState.getSpaceships().values()) {
+            PlayerSession session = room.getSession(spaceship.getPlayerId());
+            if (session != null) {
+                boolean won = spaceship.getPlayerId().equals(winnerId);
+                recordResult(session.getUsername(), spaceship.getScore(), won);
+            }
+        }
+
+        if (winnerSession != null) {
+            Spaceship winner = gameState.getSpaceships().get(winnerId);
+            System.out.println("Game Over! Winner: " + winnerSession.getUsername() + " with score: " + winner.getScore());
+        } else {
+            System.out.println("Game Over in room " + room.getId() + ": no survivors");
+        }
+    }
+
+    private void publishResult(GameRoom room) {
+        GameState gameState = room.getGameState();
+        Spaceship winner = gameState.getWinnerId() != null ? gameState.getSpaceships().get(gameState.getWinnerId()) : null;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("winner", winner != null ? winner.getId() : -1);
+        result.put("winnerUsername", gameState.getWinnerUsername());
+        publish(room, "GAME_OVER", result);
+    }
+
+    private GameRoom newRoom(String id, String lobbyId) {
+        long seed = ThreadLocalRandom.current().nextLong();
+        int hz = tickBudget.isOverBudget() ? Math.min(simulationHz, degradedSimulationHz) : simulationHz;
+        long stepMs = Math.max(1, 1000 / hz);
+        int maxRewindTicks = (int) (maxRewindMs / stepMs);
+        // The lobby's map sets the arena; rooms without a lobby get the default map
+        String map = lobbyId != null ? lobbiesService.findById(lobbyId).map(Lobby::getMap).orElse(null) : null;
+        Arena arena = arenaProperties.arena(map);
+        GameSimulation simulation = new GameSimulation(id, seed, arena, stepMs, maxRewindTicks,
+                matchJournal.open(id, seed, arena, stepMs, maxRewindTicks));
+        if (parallelThreshold > 0) {
+            simulation.enableParallel(simulationPool(), parallelThreshold);
+        }
+        // Snapshot every n steps, so the snapshot rates are approximate for step rates they don't divide
+        int snapshotDivider = Math.max(1, Math.round((float) hz / snapshotHz));
+        int maxSnapshotDivider = Math.max(snapshotDivider, Math.round((float) hz / minSnapshotHz));
+        if (hz != simulationHz) {
+            System.out.println("Room " + id + " opened at " + hz + " Hz: tick over budget");
+        }
+        GameRoom room = new GameRoom(id, lobbyId, simulation, snapshotDivider, maxSnapshotDivider,
+                metrics.roomInputLatency(id), new RoomEvents(eventReplayCapacity));
+        simulation.collectEvents();
+        return room;
+    }
+
+    /**
+     * Releases what a room holds outside itself: its tick schedule, its journal and its latency meters.
+     */
+    private void discardRoom(GameRoom room) {
+        roomScheduler.cancel(room);
+        room.getSimulation().close();
+        metrics.removeRoom(room.getInputLatency());
+    }
+
+    private void closeRoom(GameRoom room) {
+        if (rooms.remove(room.getId(), room)) {
+            discardRoom(room);
+        }
+        room.getSessions().forEach(session -> {
+            if (session.getRoom() == room) {
+                session.setRoom(null);
+            }
+        });
+
+        // Destroy the lobby that started this game
+        String lobbyId = room.getLobbyId();
+        if (lobbyId != null) {
+            lobbiesService.findById(lobbyId).ifPresent(lobby -> {
+                lobbiesService.removeLobby(lobby);
+                // Broadcast lobby removal to all clients
+                Map<String, Object> message = new HashMap<>();
+                message.put("type", "LOBBY_REMOVED");
+                Map<String, Object> data = new HashMap<>();
+                data.put("lobbyId", lobbyId);
+                message.put("data", data);
+                connectionManager.broadcast(message, objectMapper);
+                System.out.println("Lobby " + lobbyId + " destroyed after game ended");
+            });
+        }
+    }
+    
+    public Collection<GameRoom> getRooms() {
+        return rooms.values();
     }
 }
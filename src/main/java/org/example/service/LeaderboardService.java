@@ -2,6 +2,8 @@ package org.example.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.entity.PlayerEntity;
+import org.example.jfr.StatsFlushEvent;
+import org.example.metrics.GameMetrics;
 import org.example.model.LeaderboardEntry;
 import org.example.repository.PlayerRepository;
 import org.example.server.ConnectionManager;
@@ -26,10 +28,14 @@ public class LeaderboardService {
     @Autowired
     private ConnectionManager connectionManager;
     
+    @Autowired
+    private GameMetrics metrics;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     public List<LeaderboardEntry> getTopPlayers(int limit) {
-        List<PlayerEntity> players = playerRepository.findAllOrderByTotalScoreDesc();
+        List<PlayerEntity> players = metrics.timeDb("findAllOrderByTotalScoreDesc",
+                playerRepository::findAllOrderByTotalScoreDesc);
         
         return players.stream()
                 .limit(limit)
@@ -43,7 +49,8 @@ public class LeaderboardService {
     }
     
     public List<LeaderboardEntry> getAllPlayers() {
-        List<PlayerEntity> players = playerRepository.findAllOrderByTotalScoreDesc();
+        List<PlayerEntity> players = metrics.timeDb("findAllOrderByTotalScoreDesc",
+                playerRepository::findAllOrderByTotalScoreDesc);
         System.out.println("Found " + players.size() + " players in database");
         
         List<LeaderboardEntry> entries = players.stream()
@@ -61,14 +68,22 @@ public class LeaderboardService {
     
     @Transactional
     public void updatePlayerStats(String username, int score, boolean won) {
-        PlayerEntity player = authenticationService.getPlayer(username);
+        StatsFlushEvent event = new StatsFlushEvent();
+        event.begin();
+        PlayerEntity player = metrics.timeDb("findByUsername", () -> authenticationService.getPlayer(username));
         if (player != null) {
             player.addGameResult(score, won);
-            playerRepository.save(player);
+            metrics.timeDb("save", () -> playerRepository.save(player));
             System.out.println("Updated stats for " + username + ": Score=" + player.getTotalScore() + 
                              ", Wins=" + player.getWins() + ", Games=" + player.getGamesPlayed());
             broadcastLeaderboard();
         }
+        if (event.shouldCommit()) {
+            event.username = username;
+            event.score = score;
+            event.won = won;
+            event.commit();
+        }
     }
     
     public void broadcastLeaderboard() {
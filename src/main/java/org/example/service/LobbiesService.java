@@ -6,6 +6,7 @@ import org.example.model.Lobby;
 import org.example.model.LobbyEntry;
 import org.example.repository.PlayerRepository;
 import org.example.server.ConnectionManager;
+import org.example.server.PlayerSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -27,12 +28,12 @@ public class LobbiesService {
     }
 
     public synchronized Lobby createLobby(String name, String hostUsername) {
-        String hostSessionId = connectionManager.getSessionIdByUsername(hostUsername);
-        if (hostSessionId == null) {
+        PlayerSession hostSession = connectionManager.getSessionByUsername(hostUsername);
+        if (hostSession == null) {
             throw new IllegalStateException("Host is not connected via WebSocket: " + hostUsername);
         }
 
-        Lobby lobby = new Lobby(name, hostUsername, hostSessionId);
+        Lobby lobby = new Lobby(name, hostUsername, hostSession.getSessionId());
 
         Optional<PlayerEntity> entityOpt = playerRepository.findByUsername(hostUsername);
         entityOpt.ifPresent(playerEntity -> lobby.getEntries().add(new LobbyEntry(playerEntity)));
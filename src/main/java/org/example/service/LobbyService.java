@@ -25,5 +25,10 @@ public class LobbyService {
         lobbyEntries.add(entry);
         return entry;
     }
+    public LobbyEntry addLobbyEntry(String username, int totalScore) {
+        LobbyEntry entry = new LobbyEntry(username, totalScore);
+        lobbyEntries.add(entry);
+        return entry;
+    }
 
 }
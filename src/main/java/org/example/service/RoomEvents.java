@@ -0,0 +1,73 @@
+package org.example.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A room's stream of discrete events (spawns, hits, deaths, scores, joins, leaves and the match result),
+ * numbered by a per-room sequence and kept in a bounded replay log.
+ *
+ * <p>A client starts from an EVENT_BASELINE, which holds the discrete state as of one sequence number, and
+ * applies every EVENT after it in sequence order, ignoring ones it already has. Events are numbered and sent
+ * on the room's event loop, so they reach a channel in sequence order; a client that still sees a gap (a write
+ * failed, or it joined mid-stream) sends RESYNC with its last applied sequence number and gets the
+ * missing events from the log, or a fresh baseline once they have been evicted.
+ *
+ * <p>Event values are absolute, so a baseline that already reflects an event with a later sequence
+ * number is still consistent after that event is applied.
+ */
+public class RoomEvents {
+    private final int capacity;
+    private final ArrayDeque<Map<String, Object>> log = new ArrayDeque<>();
+    private long lastSeq;
+
+    public RoomEvents(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Numbers an event and logs it; returns the EVENT message to send. Called on the room's event loop,
+     * which sends the message before numbering the next one.
+     */
+    public synchronized Map<String, Object> append(String event, long tick, Map<String, Object> fields) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("seq", ++lastSeq);
+        data.put("tick", tick);
+        data.put("event", event);
+        data.putAll(fields);
+        Map<String, Object> message = new HashMap<>();
+        message.put("type", "EVENT");
+        message.put("data", data);
+        if (log.size() == capacity) {
+            log.removeFirst();
+        }
+        log.addLast(message);
+        return message;
+    }
+
+    /**
+     * The logged EVENT messages after {@code seq}, or null when some of them have been evicted.
+     */
+    public synchronized List<Map<String, Object>> since(long seq) {
+        long first = lastSeq - log.size() + 1;
+        if (seq + 1 < first) {
+            return null;
+        }
+        List<Map<String, Object>> missed = new ArrayList<>();
+        long at = first;
+        for (Map<String, Object> message : log) {
+            if (at++ > seq) {
+                missed.add(message);
+            }
+        }
+        return missed;
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+}
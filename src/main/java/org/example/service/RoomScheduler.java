@@ -0,0 +1,226 @@
+package org.example.service;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.EventExecutor;
+import org.example.server.NettyWebSocketServer;
+import org.example.server.PlayerSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each room's tick on one of the Netty worker event loops, preferably the loop that owns most of the
+ * room's channels, so a room steps and writes its snapshots on the same thread its sessions' I/O runs on.
+ * A room stays on its loop until {@link #rebalance} moves it to even out loop utilization.
+ */
+@Component
+public class RoomScheduler {
+    private static final long LOAD_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // Lazy: the server's channel handlers depend on GameService, which depends on this scheduler
+    @Autowired
+    @Lazy
+    private NettyWebSocketServer server;
+
+    @Autowired
+    private TickBudget tickBudget;
+
+    // Utilization gap between the busiest and idlest loop that triggers moving a room
+    @Value("${game.scheduler.rebalance-threshold:0.25}")
+    private double rebalanceThreshold;
+
+    private Map<EventLoop, Worker> workers;
+
+    /**
+     * One worker event loop and the rooms pinned to it.
+     */
+    private final class Worker {
+        private final EventLoop loop;
+        private final TickBudget.Loop budget;
+        private final Set<GameRoom> rooms = ConcurrentHashMap.newKeySet();
+        // Loop thread only
+        private long busyNanos;
+        private long windowStart = System.nanoTime();
+
+        Worker(EventLoop loop, String name) {
+            this.loop = loop;
+            this.budget = tickBudget.register(name);
+        }
+
+        void ran(long nanos) {
+            busyNanos += nanos;
+            long now = System.nanoTime();
+            long window = now - windowStart;
+            if (window >= LOAD_WINDOW_NANOS) {
+                tickBudget.adapt(budget, (double) busyNanos / window, rooms);
+                busyNanos = 0;
+                windowStart = now;
+            }
+        }
+    }
+
+    /**
+     * Starts ticking the room at its step rate; does nothing if it is already scheduled.
+     */
+    public void schedule(GameRoom room, Runnable tick) {
+        synchronized (room) {
+            if (room.getTickFuture() != null) {
+                return;
+            }
+            room.setTickTask(tick);
+            start(pick(room), room);
+        }
+    }
+
+    public void cancel(GameRoom room) {
+        synchronized (room) {
+            if (room.getTickFuture() == null) {
+                return;
+            }
+            room.getTickFuture().cancel(false);
+            room.setTickFuture(null);
+            Worker worker = workers().get(room.getEventLoop());
+            if (worker != null && worker.rooms.remove(room) && worker.rooms.isEmpty()) {
+                tickBudget.idle(worker.budget);
+            }
+        }
+    }
+
+    private void start(Worker worker, GameRoom room) {
+        worker.rooms.add(room);
+        room.setEventLoop(worker.loop);
+        Runnable tick = room.getTickTask();
+        room.setTickFuture(worker.loop.scheduleAtFixedRate(() -> {
+            long start = System.nanoTime();
+            try {
+                tick.run();
+            } catch (Exception e) {
+                // An exception would cancel the schedule; keep ticking the room
+                System.err.println("Error ticking room " + room.getId() + ": " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                worker.ran(System.nanoTime() - start);
+            }
+        }, 0, room.getStepNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * The loop owning most of the room's channels, or the least loaded loop when the room has no sessions yet
+     * or its channels are spread evenly.
+     */
+    private Worker pick(GameRoom room) {
+        Map<EventLoop, Integer> owners = new HashMap<>();
+        for (PlayerSession session : room.getSessions()) {
+            owners.merge(session.getChannel().eventLoop(), 1, Integer::sum);
+        }
+        Worker best = null;
+        int bestCount = 0;
+        for (Worker worker : workers().values()) {
+            int count = owners.getOrDefault(worker.loop, 0);
+            if (best == null || count > bestCount || (count == bestCount && lighter(worker, best))) {
+                best = worker;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static boolean lighter(Worker a, Worker b) {
+        if (a.budget.getUtilization() != b.budget.getUtilization()) {
+            return a.budget.getUtilization() < b.budget.getUtilization();
+        }
+        return a.rooms.size() < b.rooms.size();
+    }
+
+    /**
+     * Moves one room from the busiest loop to the idlest when their utilization differs by more than the
+     * threshold. The room whose own load is closest to half the gap is moved, so the two loops end up even.
+     */
+    @Scheduled(fixedDelayString = "${game.scheduler.rebalance-interval-ms:2000}")
+    public void rebalance() {
+        Worker busiest = null;
+        Worker idlest = null;
+        for (Worker worker : workers().values()) {
+            if (worker.rooms.size() > 1 && (busiest == null
+                    || worker.budget.getUtilization() > busiest.budget.getUtilization())) {
+                busiest = worker;
+            }
+            if (idlest == null || lighter(worker, idlest)) {
+                idlest = worker;
+            }
+        }
+        if (busiest == null || idlest == null || busiest == idlest) {
+            return;
+        }
+        double gap = busiest.budget.getUtilization() - idlest.budget.getUtilization();
+        if (gap < rebalanceThreshold) {
+            return;
+        }
+
+        GameRoom candidate = null;
+        double candidateMiss = Double.MAX_VALUE;
+        for (GameRoom room : busiest.rooms) {
+            double load = (double) room.getCostNanos() / room.getStepNanos();
+            double miss = Math.abs(load - gap / 2);
+            if (miss < candidateMiss) {
+                candidate = room;
+                candidateMiss = miss;
+            }
+        }
+        if (candidate != null) {
+            move(candidate, busiest, idlest);
+        }
+    }
+
+    /**
+     * Cancels the room's schedule from its current loop, so no tick of it is running, then starts it on the target.
+     */
+    private void move(GameRoom room, Worker from, Worker to) {
+        from.loop.execute(() -> {
+            synchronized (room) {
+                if (room.getTickFuture() == null || room.getEventLoop() != from.loop) {
+                    return; // Closed or moved in the meantime
+                }
+                room.getTickFuture().cancel(false);
+                from.rooms.remove(room);
+                start(to, room);
+            }
+            System.out.println("Moved room " + room.getId() + " to another event loop ("
+                    + String.format("%.0f%% vs %.0f%% busy", from.budget.getUtilization() * 100,
+                    to.budget.getUtilization() * 100) + ")");
+        });
+    }
+
+    private synchronized Map<EventLoop, Worker> workers() {
+        if (workers == null) {
+            Map<EventLoop, Worker> byLoop = new LinkedHashMap<>();
+            for (EventExecutor executor : server.getWorkerGroup()) {
+                byLoop.put((EventLoop) executor, new Worker((EventLoop) executor, "worker-" + byLoop.size()));
+            }
+            workers = byLoop;
+        }
+        return workers;
+    }
+
+    /**
+     * Rooms per worker loop, in loop order.
+     */
+    public List<Integer> getRoomCounts() {
+        List<Integer> counts = new ArrayList<>();
+        for (Worker worker : workers().values()) {
+            counts.add(worker.rooms.size());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Issues and validates signed, expiring session tokens so authenticated calls
+ * don't need a BCrypt check and a database lookup each time.
+ * Token format: base64url(username) "." expiresAtMillis "." base64url(HMAC-SHA256 of the first two parts).
+ */
+@Service
+public class SessionTokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+    private final ThreadLocal<Mac> macs;
+
+    public SessionTokenService(@Value("${auth.token.secret:}") String secret,
+                               @Value("${auth.token.ttl-seconds:3600}") long ttlSeconds) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            // No configured secret: tokens stay valid only until this instance restarts
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            System.out.println("auth.token.secret not set - using a random per-process token key");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issueToken(String username) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        String payload = encode(username.getBytes(StandardCharsets.UTF_8)) + "." + expiresAt;
+        return payload + "." + encode(sign(payload));
+    }
+
+    /**
+     * Returns the username the token was issued for, or null if it is malformed, forged or expired.
+     */
+    public String validateToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot <= firstDot) {
+            return null;
+        }
+        String payload = token.substring(0, lastDot);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return null;
+            }
+            long expiresAt = Long.parseLong(token.substring(firstDot + 1, lastDot));
+            if (System.currentTimeMillis() >= expiresAt) {
+                return null;
+            }
+            return new String(Base64.getUrlDecoder().decode(token.substring(0, firstDot)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
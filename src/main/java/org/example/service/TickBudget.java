@@ -0,0 +1,138 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tick budget of each room worker loop, as the fraction of wall time its rooms spend ticking. While a loop
+ * runs over budget, its costliest room that can still give something up sends snapshots less often, one
+ * level per adjustment; once the loop is comfortably under budget, its most degraded room gets a level back.
+ * New rooms opened while every loop is over budget simulate at the reduced rate.
+ *
+ * <p>Only the snapshot rate of a running match changes: its step length is part of its deterministic
+ * simulation and journal, so it stays fixed for the life of the room.
+ */
+@Component
+public class TickBudget {
+    @Value("${game.tick.budget-utilization:0.75}")
+    private double budget;
+
+    // Restore only below this fraction of the budget, so rates don't flap around the threshold
+    @Value("${game.tick.restore-fraction:0.5}")
+    private double restoreFraction;
+
+    @Value("${game.tick.step-down-interval-ms:250}")
+    private long stepDownIntervalMs;
+
+    @Value("${game.tick.restore-interval-ms:2000}")
+    private long restoreIntervalMs;
+
+    private final MeterRegistry registry;
+    private final Counter stepDowns;
+    private final Counter restores;
+    private final List<Loop> loops = new CopyOnWriteArrayList<>();
+
+    /**
+     * Budget state of one worker loop; written only from that loop's thread.
+     */
+    public static final class Loop {
+        // Smoothed over the last few load windows
+        private volatile double utilization;
+        private volatile boolean overBudget;
+        private long lastChangeNanos;
+
+        public double getUtilization() { return utilization; }
+        public boolean isOverBudget() { return overBudget; }
+    }
+
+    public TickBudget(MeterRegistry registry) {
+        this.registry = registry;
+        this.stepDowns = Counter.builder("game.tick.rate.changes")
+                .tag("direction", "down")
+                .description("Room snapshot rate adjustments made by the tick budget")
+                .register(registry);
+        this.restores = Counter.builder("game.tick.rate.changes")
+                .tag("direction", "up")
+                .description("Room snapshot rate adjustments made by the tick budget")
+                .register(registry);
+    }
+
+    public Loop register(String name) {
+        Loop loop = new Loop();
+        loops.add(loop);
+        Gauge.builder("game.tick.loop.utilization", loop, Loop::getUtilization)
+                .description("Smoothed fraction of time a worker loop spends ticking rooms")
+                .tag("loop", name)
+                .register(registry);
+        return loop;
+    }
+
+    /**
+     * Called on the loop's thread at the end of each load window with the utilization measured over it.
+     */
+    public void adapt(Loop loop, double sample, Collection<GameRoom> rooms) {
+        double utilization = loop.utilization == 0 ? sample : loop.utilization * 0.7 + sample * 0.3;
+        loop.utilization = utilization;
+        loop.overBudget = utilization > budget;
+        long now = System.nanoTime();
+
+        if (loop.overBudget && now - loop.lastChangeNanos >= TimeUnit.MILLISECONDS.toNanos(stepDownIntervalMs)) {
+            GameRoom costliest = null;
+            for (GameRoom room : rooms) {
+                if (room.canStepDown() && (costliest == null || room.getCostNanos() > costliest.getCostNanos())) {
+                    costliest = room;
+                }
+            }
+            if (costliest != null && costliest.stepDown()) {
+                loop.lastChangeNanos = now;
+                stepDowns.increment();
+                System.out.println("Tick over budget (" + String.format("%.0f%%", utilization * 100) + " busy): room "
+                        + costliest.getId() + " now snapshots every " + costliest.getSnapshotDivider() + " steps");
+            }
+        } else if (utilization < budget * restoreFraction
+                && now - loop.lastChangeNanos >= TimeUnit.MILLISECONDS.toNanos(restoreIntervalMs)) {
+            GameRoom mostDegraded = null;
+            for (GameRoom room : rooms) {
+                if (room.isDegraded() && (mostDegraded == null
+                        || room.getSnapshotDivider() > mostDegraded.getSnapshotDivider())) {
+                    mostDegraded = room;
+                }
+            }
+            if (mostDegraded != null && mostDegraded.restore()) {
+                loop.lastChangeNanos = now;
+                restores.increment();
+            }
+        }
+    }
+
+    /**
+     * A loop with no rooms left does no tick work.
+     */
+    public void idle(Loop loop) {
+        loop.utilization = 0;
+        loop.overBudget = false;
+    }
+
+    /**
+     * True when no loop has headroom left for another room at full rate.
+     */
+    public boolean isOverBudget() {
+        if (loops.isEmpty()) {
+            return false;
+        }
+        for (Loop loop : loops) {
+            if (!loop.overBudget) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
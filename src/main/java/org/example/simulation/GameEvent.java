@@ -0,0 +1,14 @@
+package org.example.simulation;
+
+/**
+ * A discrete change to a ship that clients learn from the room's event stream rather than from snapshots.
+ * Values are absolute (health or score after the change), so applying an event twice is harmless.
+ *
+ * @param tick  simulation tick the change happened on
+ * @param ship  entity id of the ship the event is about
+ * @param by    entity id of the ship that caused it, or -1
+ * @param value health after {@link Type#SPAWN} and {@link Type#DAMAGE}, score after {@link Type#SCORE}
+ */
+public record GameEvent(Type type, long tick, int ship, int by, int value) {
+    public enum Type { SPAWN, DAMAGE, DEATH, SCORE }
+}
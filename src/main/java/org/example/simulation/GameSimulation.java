@@ -0,0 +1,673 @@
+package org.example.simulation;
+
+import org.example.jfr.CollisionCheckEvent;
+import org.example.model.Arena;
+import org.example.model.Bullet;
+import org.example.model.GameState;
+import org.example.model.PlayerInput;
+import org.example.model.Spaceship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * Deterministic simulation of one room. The room's seed drives every random choice, time only advances
+ * in fixed steps of the room's {@code stepMs}, angles go through {@link TrigTable}, and ships are iterated in join order.
+ * Replaying the same seed, arena, joins, leaves and per-step input lists produces a bit-identical {@link GameState}.
+ *
+ * <p>Hits are lag compensated: a bullet is tested against ship positions as its shooter saw them when firing,
+ * taken from a {@link ShipHistory} of the last {@code maxRewindTicks} steps.
+ *
+ * <p>Inputs may be submitted from any thread; they are queued and only applied at the start of the next step.
+ * An input is the set of keys the player is holding: movement is integrated once per step from the held keys,
+ * so neither speed nor work per step depends on how often a client sends.
+ *
+ * <p>Spawns, hits, deaths and score changes are queued as {@link GameEvent}s once {@link #collectEvents} is
+ * called, and handed out by {@link #drainEvents} so the caller can publish them outside the simulation's lock.
+ *
+ * <p>Rooms with enough ships and bullets can move and collide bullets on a {@link ForkJoinPool}, one region
+ * per horizontal band of the arena. A region's bullets are moved and swept by one task, which otherwise only
+ * reads the world and collects candidate hits. Damage, kills and scores are not accumulated per task and
+ * reduced: whether a bullet hits depends on whether earlier bullets already killed its target, so the hits
+ * are applied on the stepping thread in bullet order, and a parallel step ends in exactly the state a
+ * sequential one would. The stepping thread works through regions itself alongside the pool and only
+ * waits for regions a pool thread is already running, never for tasks still queued behind other rooms.
+ */
+public class GameSimulation {
+    public static final long DEFAULT_STEP_MS = 16;
+
+    // Per second; a step covers stepMs of it (3 px, 5 degrees and 8 px per 16 ms step)
+    private static final double SHIP_SPEED = 187.5;
+    private static final double ROTATION_SPEED = 312.5;
+    private static final double BULLET_SPEED = 500;
+    private static final double MUZZLE_OFFSET = 25;
+    private static final double HIT_RADIUS = 20;
+    private static final int BULLET_DAMAGE = 10;
+    private static final int KILL_SCORE = 100;
+    private static final double GRID_CELL_SIZE = 4 * HIT_RADIUS;
+    private static final long SHOT_COOLDOWN_MS = 200;
+
+    private final String roomId;
+    private final long seed;
+    private final Random random;
+    private final GameState state;
+    private final Queue<TickInput> pendingInputs = new ConcurrentLinkedQueue<>();
+    private final SimulationRecorder recorder;
+    private final long stepMs;
+    // Farthest a ship can travel in one step, with two perpendicular movement keys held
+    private final double maxShipStep;
+    // Shot cooldown rounded up to whole steps
+    private final long shotCooldownSteps;
+    // Keys each player is holding, as of their latest input
+    private final Map<String, PlayerInput> heldInputs = new HashMap<>();
+    private final int maxRewindTicks;
+    private final ShipHistory history;
+    private final Arena arena;
+    private final ShipGrid grid;
+    private long nextBulletId;
+    private int nextShipId;
+    // Discrete events since the last drain, null unless collected
+    private List<GameEvent> pendingEvents;
+    // Parallel steps, off unless enabled
+    private ForkJoinPool pool;
+    private int parallelThreshold;
+    // One per region; region r covers the grid rows [r * rows / regions, (r + 1) * rows / regions)
+    private HitBuffer[] hitBuffers = { new HitBuffer() };
+    // Bullet b's hits are hitBuffers[hitRegion[b]] entries [hitFrom[b], hitTo[b])
+    private int[] hitRegion = new int[16];
+    private int[] hitFrom = new int[16];
+    private int[] hitTo = new int[16];
+    // Bullet indices grouped by region, region r at [regionStart[r], regionStart[r + 1])
+    private int[] regionOrder = new int[16];
+    private int[] regionStart = new int[2];
+
+    public GameSimulation(String roomId, long seed) {
+        this(roomId, seed, DEFAULT_STEP_MS, 0, SimulationRecorder.NONE);
+    }
+
+    public GameSimulation(String roomId, long seed, long stepMs, int maxRewindTicks, SimulationRecorder recorder) {
+        this(roomId, seed, Arena.DEFAULT, stepMs, maxRewindTicks, recorder);
+    }
+
+    public GameSimulation(String roomId, long seed, Arena arena, long stepMs, int maxRewindTicks,
+                          SimulationRecorder recorder) {
+        if (stepMs <= 0) {
+            throw new IllegalArgumentException("Step length must be positive: " + stepMs);
+        }
+        this.roomId = roomId;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.arena = arena;
+        this.state = new GameState(arena);
+        this.grid = new ShipGrid(arena.width(), arena.height(), GRID_CELL_SIZE);
+        this.recorder = recorder;
+        this.stepMs = stepMs;
+        this.maxShipStep = 2 * SHIP_SPEED * stepMs / 1000.0;
+        this.shotCooldownSteps = (SHOT_COOLDOWN_MS + stepMs - 1) / stepMs;
+        this.maxRewindTicks = Math.max(0, maxRewindTicks);
+        this.history = new ShipHistory(this.maxRewindTicks + 1);
+    }
+
+    /**
+     * Starts queueing discrete ship events for {@link #drainEvents}. Off by default, so simulations nobody
+     * drains (benchmarks, replays) don't grow the queue.
+     */
+    public synchronized void collectEvents() {
+        if (pendingEvents == null) {
+            pendingEvents = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Takes the events queued since the last call, in the order they happened.
+     */
+    public synchronized List<GameEvent> drainEvents() {
+        if (pendingEvents == null || pendingEvents.isEmpty()) {
+            return List.of();
+        }
+        List<GameEvent> drained = pendingEvents;
+        pendingEvents = new ArrayList<>();
+        return drained;
+    }
+
+    private void emit(GameEvent event) {
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+        }
+    }
+
+    /**
+     * Lets steps with at least {@code threshold} ships and bullets split bullet work across the pool, in at most
+     * as many regions as it has threads. The outcome of a step doesn't depend on it.
+     */
+    public synchronized void enableParallel(ForkJoinPool pool, int threshold) {
+        int regions = Math.min(pool.getParallelism(), grid.rows());
+        if (regions < 2) {
+            return;
+        }
+        this.pool = pool;
+        this.parallelThreshold = threshold;
+        this.hitBuffers = new HitBuffer[regions];
+        for (int r = 0; r < regions; r++) {
+            hitBuffers[r] = new HitBuffer();
+        }
+        this.regionStart = new int[regions + 1];
+    }
+
+    /**
+     * How many steps behind the server a client's view was when it sent this input, clamped to {@code [0, maxRewind]}.
+     * Clients that don't report a view tick get no compensation.
+     */
+    public static int viewLag(long tick, PlayerInput input, int maxRewindTicks) {
+        if (input.getViewTick() <= 0) {
+            return 0;
+        }
+        return (int) Math.min(Math.max(0, tick - input.getViewTick()), maxRewindTicks);
+    }
+
+    /**
+     * Spawns a ship at a random position away from the walls.
+     */
+    public synchronized Spaceship spawn(String playerId) {
+        double x = Arena.SPAWN_MARGIN + random.nextDouble() * (arena.width() - 2 * Arena.SPAWN_MARGIN);
+        double y = Arena.SPAWN_MARGIN + random.nextDouble() * (arena.height() - 2 * Arena.SPAWN_MARGIN);
+        Spaceship spaceship = new Spaceship(playerId, x, y);
+        addShip(spaceship);
+        recorder.spawned(state.getTick(), playerId);
+        return spaceship;
+    }
+
+    /**
+     * Spreads ships evenly on an ellipse around the arena center, with a random phase.
+     */
+    public synchronized void spawnAll(List<String> playerIds) {
+        double phase = random.nextDouble() * Math.PI * 2;
+        double radiusX = (arena.width() - 2 * Arena.SPAWN_MARGIN) / 2.0;
+        double radiusY = (arena.height() - 2 * Arena.SPAWN_MARGIN) / 2.0;
+        for (int i = 0; i < playerIds.size(); i++) {
+            double theta = phase + (Math.PI * 2 * i) / playerIds.size();
+            double x = arena.width() / 2.0 + StrictMath.cos(theta) * radiusX;
+            double y = arena.height() / 2.0 + StrictMath.sin(theta) * radiusY;
+            addShip(new Spaceship(playerIds.get(i), x, y));
+        }
+        recorder.spawnedAll(state.getTick(), playerIds);
+    }
+
+    private void addShip(Spaceship spaceship) {
+        spaceship.setId(nextShipId++);
+        history.ensureSlots(nextShipId);
+        state.addSpaceship(spaceship);
+        emit(new GameEvent(GameEvent.Type.SPAWN, state.getTick(), spaceship.getId(), -1, spaceship.getHealth()));
+    }
+
+    public synchronized Spaceship remove(String playerId) {
+        heldInputs.remove(playerId);
+        Spaceship spaceship = state.getSpaceships().get(playerId);
+        state.removeSpaceship(playerId);
+        if (spaceship != null) {
+            recorder.removed(state.getTick(), playerId);
+        }
+        return spaceship;
+    }
+
+    /**
+     * Queues an input for the next step. Safe to call from I/O threads.
+     */
+    public void submit(String playerId, PlayerInput input) {
+        pendingInputs.add(new TickInput(playerId, input));
+    }
+
+    /**
+     * Takes every input queued since the previous call, collapsed to one per player in first-arrival order.
+     * The latest held keys win; a shot requested by any of the collapsed inputs is kept, as are the highest
+     * seq and the earliest receive time.
+     */
+    public List<TickInput> drainInputs() {
+        Map<String, PlayerInput> latest = new LinkedHashMap<>();
+        TickInput queued;
+        while ((queued = pendingInputs.poll()) != null) {
+            PlayerInput input = queued.input();
+            PlayerInput previous = latest.put(queued.playerId(), input);
+            if (previous != null) {
+                if (previous.isShoot() && !input.isShoot()) {
+                    input.setShoot(true);
+                    input.setViewTick(previous.getViewTick());
+                }
+                input.setSeq(Math.max(input.getSeq(), previous.getSeq()));
+                if (previous.getReceivedAtNanos() != 0) {
+                    input.setReceivedAtNanos(previous.getReceivedAtNanos());
+                }
+            }
+        }
+        List<TickInput> inputs = new ArrayList<>(latest.size());
+        for (Map.Entry<String, PlayerInput> entry : latest.entrySet()) {
+            inputs.add(new TickInput(entry.getKey(), entry.getValue()));
+        }
+        return inputs;
+    }
+
+    /**
+     * Advances the world by one fixed step: the step's inputs replace each player's held keys, every ship
+     * moves once by its held keys, shots requested this step are fired, then bullets move and collide.
+     */
+    public synchronized void step(List<TickInput> inputs) {
+        recorder.stepped(state.getTick(), inputs);
+        for (TickInput input : inputs) {
+            hold(input.playerId(), input.input());
+        }
+        for (Spaceship spaceship : state.getSpaceships().values()) {
+            integrate(spaceship);
+        }
+        for (TickInput input : inputs) {
+            if (input.input().isShoot()) {
+                tryShoot(input.playerId(), input.input());
+            }
+        }
+        state.advance(stepMs);
+        state.removeSpentBullets();
+        recordHistory();
+        int regions = regions();
+        if (regions > 1) {
+            // Each band's bullets are moved and swept by the same task, banded by where they start the step
+            checkCollisions(regions, true);
+        } else {
+            state.moveBullets(0, state.getBullets().size());
+            checkCollisions(1);
+        }
+    }
+
+    /**
+     * Regions to split this step's bullet work into; 1 keeps it on the stepping thread.
+     */
+    private int regions() {
+        if (pool == null || state.getSpaceships().size() + state.getBullets().size() < parallelThreshold) {
+            return 1;
+        }
+        return hitBuffers.length;
+    }
+
+    /**
+     * Runs the task for every region and returns once all are done. Pool threads and the calling thread
+     * claim regions from a shared counter, so the caller keeps working while helpers are still queued and
+     * only waits for regions a helper has already claimed. Helpers that start after every region is claimed
+     * return at once.
+     */
+    private void inRegions(int regions, IntConsumer task) {
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(regions);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            for (int r = next.getAndIncrement(); r < regions; r = next.getAndIncrement()) {
+                try {
+                    task.accept(r);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        for (int helper = 1; helper < regions; helper++) {
+            pool.execute(worker);
+        }
+        worker.run();
+        // Every region is claimed; wait for the ones helpers are still running, so none outlives the step
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private void recordHistory() {
+        long tick = state.getTick();
+        history.beginTick(tick);
+        for (Spaceship spaceship : state.getSpaceships().values()) {
+            history.record(tick, spaceship.getId(), spaceship.getX(), spaceship.getY());
+        }
+    }
+
+    private void hold(String playerId, PlayerInput input) {
+        Spaceship spaceship = state.getSpaceships().get(playerId);
+        if (spaceship == null || !spaceship.isAlive()) return;
+        heldInputs.put(playerId, input);
+        spaceship.setLastInputSeq(Math.max(spaceship.getLastInputSeq(), input.getSeq()));
+    }
+
+    /**
+     * Moves and turns a ship by its held keys for one step, however many inputs its client sent.
+     */
+    private void integrate(Spaceship spaceship) {
+        PlayerInput input = heldInputs.get(spaceship.getPlayerId());
+        if (input == null || !spaceship.isAlive()) return;
+
+        // Movement
+        double angle = spaceship.getAngle();
+        double distance = SHIP_SPEED * stepMs / 1000.0;
+        if (input.isMoveUp()) {
+            spaceship.move(TrigTable.cos(angle) * distance, TrigTable.sin(angle) * distance);
+        }
+        if (input.isMoveDown()) {
+            spaceship.move(-TrigTable.cos(angle) * distance, -TrigTable.sin(angle) * distance);
+        }
+        if (input.isMoveLeft()) {
+            spaceship.move(TrigTable.cos(angle - 90) * distance, TrigTable.sin(angle - 90) * distance);
+        }
+        if (input.isMoveRight()) {
+            spaceship.move(TrigTable.cos(angle + 90) * distance, TrigTable.sin(angle + 90) * distance);
+        }
+
+        // Rotation
+        double turn = ROTATION_SPEED * stepMs / 1000.0;
+        if (input.isRotateLeft()) {
+            spaceship.rotate(-turn);
+        }
+        if (input.isRotateRight()) {
+            spaceship.rotate(turn);
+        }
+
+        // Keep spaceship in bounds
+        if (spaceship.getX() < 0) spaceship.setX(0);
+        if (spaceship.getX() > arena.width()) spaceship.setX(arena.width());
+        if (spaceship.getY() < 0) spaceship.setY(0);
+        if (spaceship.getY() > arena.height()) spaceship.setY(arena.height());
+    }
+
+    /**
+     * Shooting is a trigger rather than a held key: it fires in steps where an input asked for it, with the
+     * cooldown counted in steps.
+     */
+    private void tryShoot(String playerId, PlayerInput input) {
+        Spaceship spaceship = state.getSpaceships().get(playerId);
+        if (spaceship == null || !spaceship.isAlive()) return;
+        long tick = state.getTick();
+        if (tick >= spaceship.getNextShotTick()) {
+            shootBullet(playerId, spaceship, viewLag(tick, input, maxRewindTicks));
+            spaceship.setNextShotTick(tick + shotCooldownSteps);
+        }
+    }
+
+    private void shootBullet(String playerId, Spaceship spaceship, int lagTicks) {
+        double cos = TrigTable.cos(spaceship.getAngle());
+        double sin = TrigTable.sin(spaceship.getAngle());
+
+        // Bullet starts at the front of the spaceship
+        Bullet bullet = new Bullet();
+        bullet.setId(nextBulletId++);
+        bullet.setShooterId(playerId);
+        bullet.setShooterShipId(spaceship.getId());
+        bullet.setX(spaceship.getX() + cos * MUZZLE_OFFSET);
+        bullet.setY(spaceship.getY() + sin * MUZZLE_OFFSET);
+        double speed = BULLET_SPEED * stepMs / 1000.0;
+        bullet.setVelocityX(cos * speed);
+        bullet.setVelocityY(sin * speed);
+        bullet.setLagTicks(lagTicks);
+        state.addBullet(bullet);
+    }
+
+    /**
+     * Ends recording; the simulation itself is left as is.
+     */
+    public synchronized void close() {
+        recorder.closed(state.getTick());
+    }
+
+    void checkCollisions() {
+        checkCollisions(1);
+    }
+
+    void checkCollisions(int regions) {
+        checkCollisions(regions, false);
+    }
+
+    /**
+     * Sweeps each bullet along the segment it covered this step and hits the first ship it enters, taking
+     * ships where its shooter saw them. Candidates come from the ship grid, so the cost follows the number
+     * of nearby ships rather than all of them, and the result doesn't depend on how long the step was.
+     *
+     * <p>Each bullet's candidate hits are collected first, by region when there is more than one, then applied
+     * in bullet order: a bullet hits its earliest candidate that earlier bullets haven't killed. With
+     * {@code move}, each region's task first moves its bullets one step; bullets are then banded by where they
+     * start the step rather than where they end it, which only changes which task sweeps them.
+     */
+    private void checkCollisions(int regions, boolean move) {
+        CollisionCheckEvent event = new CollisionCheckEvent();
+        event.begin();
+        List<Bullet> bullets = state.getBullets();
+        int count = bullets.size();
+        long tick = state.getTick();
+        grid.build(state.getSpaceships().values());
+        if (hitFrom.length < count) {
+            int capacity = Math.max(count, hitFrom.length * 2);
+            hitRegion = new int[capacity];
+            hitFrom = new int[capacity];
+            hitTo = new int[capacity];
+            regionOrder = new int[capacity];
+        }
+
+        if (regions > 1) {
+            // Counting sort of the bullets into bands of grid rows by where they ended the step
+            Arrays.fill(regionStart, 0);
+            for (int b = 0; b < count; b++) {
+                int region = grid.row(bullets.get(b).getY()) * regions / grid.rows();
+                hitRegion[b] = region;
+                regionStart[region + 1]++;
+            }
+            for (int r = 0; r < regions; r++) {
+                regionStart[r + 1] += regionStart[r];
+            }
+            int[] cursor = Arrays.copyOf(regionStart, regions);
+            for (int b = 0; b < count; b++) {
+                regionOrder[cursor[hitRegion[b]]++] = b;
+            }
+            inRegions(regions, r -> {
+                HitBuffer buffer = hitBuffers[r];
+                buffer.clear();
+                for (int i = regionStart[r]; i < regionStart[r + 1]; i++) {
+                    int b = regionOrder[i];
+                    Bullet bullet = bullets.get(b);
+                    if (move) {
+                        bullet.update();
+                    }
+                    scan(bullet, b, tick, buffer);
+                }
+            });
+        } else {
+            HitBuffer buffer = hitBuffers[0];
+            buffer.clear();
+            for (int b = 0; b < count; b++) {
+                hitRegion[b] = 0;
+                scan(bullets.get(b), b, tick, buffer);
+            }
+        }
+
+        int hits = 0;
+        for (int b = 0; b < count; b++) {
+            HitBuffer buffer = hitBuffers[hitRegion[b]];
+            for (int i = hitFrom[b]; i < hitTo[b]; i++) {
+                Spaceship spaceship = grid.ship(buffer.ship(i));
+                if (!spaceship.isAlive()) {
+                    continue;
+                }
+                Bullet bullet = bullets.get(b);
+                hits++;
+                spaceship.takeDamage(BULLET_DAMAGE);
+                bullet.setActive(false);
+                int by = bullet.getShooterShipId();
+                emit(new GameEvent(GameEvent.Type.DAMAGE, state.getTick(), spaceship.getId(), by, spaceship.getHealth()));
+                if (!spaceship.isAlive()) {
+                    emit(new GameEvent(GameEvent.Type.DEATH, state.getTick(), spaceship.getId(), by, 0));
+                    Spaceship shooter = state.getSpaceships().get(bullet.getShooterId());
+                    if (shooter != null) {
+                        shooter.addScore(KILL_SCORE);
+                        emit(new GameEvent(GameEvent.Type.SCORE, state.getTick(), shooter.getId(), -1, shooter.getScore()));
+                    }
+                    checkGameOver();
+                }
+                break;
+            }
+        }
+
+        if (event.shouldCommit()) {
+            int candidates = 0;
+            int rewound = 0;
+            for (int r = 0; r < regions; r++) {
+                candidates += hitBuffers[r].candidates;
+                rewound += hitBuffers[r].rewound;
+            }
+            event.room = roomId;
+            event.ships = state.getSpaceships().size();
+            event.bullets = count;
+            event.candidates = candidates;
+            event.hits = hits;
+            event.rewoundChecks = rewound;
+            event.regions = regions;
+            event.commit();
+        }
+    }
+
+    /**
+     * Appends the ships bullet b would hit this step to the buffer, in hit order. Only reads the world, so
+     * bullets can be scanned concurrently into separate buffers.
+     */
+    private void scan(Bullet bullet, int b, long tick, HitBuffer buffer) {
+        int from = buffer.size();
+        hitFrom[b] = from;
+        if (bullet.isActive() && grid.size() > 0) {
+            double endX = bullet.getX();
+            double endY = bullet.getY();
+            double startX = endX - bullet.getVelocityX();
+            double startY = endY - bullet.getVelocityY();
+            // Where the shooter saw the ships; positions older than the buffer fall back to the present
+            int lag = bullet.getLagTicks();
+            long seenTick = tick - lag;
+            // A rewound ship can be up to lag steps away from the cell it is indexed in
+            double margin = HIT_RADIUS + lag * maxShipStep;
+            int fromColumn = grid.column(Math.min(startX, endX) - margin);
+            int toColumn = grid.column(Math.max(startX, endX) + margin);
+            int fromRow = grid.row(Math.min(startY, endY) - margin);
+            int toRow = grid.row(Math.max(startY, endY) + margin);
+
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int column = fromColumn; column <= toColumn; column++) {
+                    int end = grid.cellEnd(column, row);
+                    for (int i = grid.cellStart(column, row); i < end; i++) {
+                        int index = grid.entry(i);
+                        Spaceship spaceship = grid.ship(index);
+                        if (spaceship.getPlayerId().equals(bullet.getShooterId())) {
+                            continue;
+                        }
+                        buffer.candidates++;
+                        double targetX = spaceship.getX();
+                        double targetY = spaceship.getY();
+                        int slot = spaceship.getId();
+                        if (seenTick != tick && history.has(seenTick, slot)) {
+                            targetX = history.x(seenTick, slot);
+                            targetY = history.y(seenTick, slot);
+                            buffer.rewound++;
+                        }
+                        double t = sweep(startX, startY, bullet.getVelocityX(), bullet.getVelocityY(), targetX, targetY);
+                        if (t >= 0) {
+                            // Earliest contact first; ties go to the ship that joined first
+                            buffer.add(from, index, t);
+                        }
+                    }
+                }
+            }
+        }
+        hitTo[b] = buffer.size();
+    }
+
+    /**
+     * Fraction of the segment {@code start + t * delta}, t in [0, 1], at which it enters the hit circle
+     * around the center, or -1 if it doesn't.
+     */
+    static double sweep(double startX, double startY, double deltaX, double deltaY, double centerX, double centerY) {
+        double fx = startX - centerX;
+        double fy = startY - centerY;
+        double c = fx * fx + fy * fy - HIT_RADIUS * HIT_RADIUS;
+        if (c < 0) {
+            return 0; // Already inside at the start of the step
+        }
+        double a = deltaX * deltaX + deltaY * deltaY;
+        if (a == 0) {
+            return -1;
+        }
+        double halfB = fx * deltaX + fy * deltaY;
+        double discriminant = halfB * halfB - a * c;
+        if (discriminant < 0) {
+            return -1;
+        }
+        double t = (-halfB - Math.sqrt(discriminant)) / a;
+        return t >= 0 && t <= 1 ? t : -1;
+    }
+
+    /**
+     * The match ends once at most one ship is alive; the survivor, if any, wins.
+     */
+    private void checkGameOver() {
+        if (state.isGameOver()) {
+            return;
+        }
+        Spaceship winner = null;
+        int alive = 0;
+        for (Spaceship spaceship : state.getSpaceships().values()) {
+            if (spaceship.isAlive()) {
+                alive++;
+                winner = spaceship;
+            }
+        }
+        if (alive <= 1) {
+            state.setGameOver(true);
+            state.setWinnerId(winner != null ? winner.getPlayerId() : null);
+        }
+    }
+
+    /**
+     * The rules a client needs to predict its own ship between snapshots and replay unacknowledged inputs
+     * on top of the authoritative state.
+     */
+    public Map<String, Object> describeRules() {
+        Map<String, Object> rules = new LinkedHashMap<>();
+        rules.put("stepMs", stepMs);
+        rules.put("width", arena.width());
+        rules.put("height", arena.height());
+        rules.put("shipSpeedPerSecond", SHIP_SPEED);
+        rules.put("rotationSpeedPerSecond", ROTATION_SPEED);
+        rules.put("bulletSpeedPerSecond", BULLET_SPEED);
+        rules.put("muzzleOffset", MUZZLE_OFFSET);
+        rules.put("hitRadius", HIT_RADIUS);
+        rules.put("shotCooldownSteps", shotCooldownSteps);
+        rules.put("maxRewindTicks", maxRewindTicks);
+        return rules;
+    }
+
+    public String getRoomId() { return roomId; }
+    public long getSeed() { return seed; }
+    public Arena getArena() { return arena; }
+    public long getStepMs() { return stepMs; }
+    public int getMaxRewindTicks() { return maxRewindTicks; }
+    public GameState getState() { return state; }
+}
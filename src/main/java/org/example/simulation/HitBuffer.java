@@ -0,0 +1,42 @@
+package org.example.simulation;
+
+/**
+ * Ships a bullet would hit this step, as (ship index, entry fraction) pairs kept in hit order, for one
+ * scanning thread. Arrays are reused across steps and only grow.
+ */
+final class HitBuffer {
+    private int[] ships = new int[16];
+    private double[] fractions = new double[16];
+    private int size;
+    // Scan statistics for the collision event
+    int candidates;
+    int rewound;
+
+    void clear() {
+        size = 0;
+        candidates = 0;
+        rewound = 0;
+    }
+
+    int size() { return size; }
+    int ship(int i) { return ships[i]; }
+
+    /**
+     * Inserts a hit of the bullet whose hits start at {@code from}, keeping them ordered by entry fraction,
+     * then by ship index (join order).
+     */
+    void add(int from, int ship, double fraction) {
+        if (size == ships.length) {
+            ships = java.util.Arrays.copyOf(ships, size * 2);
+            fractions = java.util.Arrays.copyOf(fractions, size * 2);
+        }
+        int i = size++;
+        while (i > from && (fractions[i - 1] > fraction || (fractions[i - 1] == fraction && ships[i - 1] > ship))) {
+            ships[i] = ships[i - 1];
+            fractions[i] = fractions[i - 1];
+            i--;
+        }
+        ships[i] = ship;
+        fractions[i] = fraction;
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.simulation;
+
+import org.example.model.Spaceship;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform-grid broad phase over the ships of one room, rebuilt every step by a counting sort of ship
+ * centers into cells. Each ship sits in exactly one cell, so a query over a range of cells visits it at
+ * most once.
+ *
+ * <p>Cells are grouped into square chunks, and only chunks with a ship in them hold cell arrays, so memory
+ * and build work follow the occupied part of the arena rather than its size. The arena itself only costs a
+ * reference per chunk. Arrays are reused across steps and only grow.
+ */
+final class ShipGrid {
+    // Chunks are CHUNK_CELLS x CHUNK_CELLS cells
+    private static final int CHUNK_CELLS = 8;
+    private static final int CHUNK_AREA = CHUNK_CELLS * CHUNK_CELLS;
+    // Emptied chunks kept for reuse by ships moving into new ones
+    private static final int MAX_SPARE_CHUNKS = 64;
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int chunkColumns;
+    // By chunk position (chunk row * chunkColumns + chunk column); null where no ship is
+    private final Chunk[] chunks;
+    private final List<Chunk> occupied = new ArrayList<>();
+    private final ArrayDeque<Chunk> spare = new ArrayDeque<>();
+    private final List<Spaceship> ships = new ArrayList<>();
+    // Per ship index: its chunk and its cell within the chunk
+    private Chunk[] chunkOf = new Chunk[16];
+    private int[] cellOf = new int[16];
+    private int[] entries = new int[16];
+
+    private static final class Chunk {
+        private int position;
+        private int count;
+        // Ships of the chunk's cell c are entries[start[c] .. start[c + 1]), in join order
+        private final int[] start = new int[CHUNK_AREA + 1];
+        private final int[] cursor = new int[CHUNK_AREA];
+    }
+
+    ShipGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.chunkColumns = (columns + CHUNK_CELLS - 1) / CHUNK_CELLS;
+        this.chunks = new Chunk[chunkColumns * ((rows + CHUNK_CELLS - 1) / CHUNK_CELLS)];
+    }
+
+    /**
+     * Indexes the live ships, keeping their iteration order within each cell.
+     */
+    void build(Iterable<Spaceship> spaceships) {
+        ships.clear();
+        for (Spaceship spaceship : spaceships) {
+            if (spaceship.isAlive()) {
+                ships.add(spaceship);
+            }
+        }
+        int count = ships.size();
+        if (cellOf.length < count) {
+            cellOf = new int[Math.max(count, cellOf.length * 2)];
+            chunkOf = new Chunk[cellOf.length];
+            entries = new int[cellOf.length];
+        }
+
+        for (Chunk chunk : occupied) {
+            chunk.count = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            Spaceship spaceship = ships.get(i);
+            int column = column(spaceship.getX());
+            int row = row(spaceship.getY());
+            int position = (row / CHUNK_CELLS) * chunkColumns + column / CHUNK_CELLS;
+            Chunk chunk = chunks[position];
+            if (chunk == null) {
+                chunk = spare.isEmpty() ? new Chunk() : spare.pop();
+                chunk.position = position;
+                chunk.count = 0;
+                chunks[position] = chunk;
+                occupied.add(chunk);
+            }
+            chunk.count++;
+            chunkOf[i] = chunk;
+            cellOf[i] = (row % CHUNK_CELLS) * CHUNK_CELLS + column % CHUNK_CELLS;
+        }
+        occupied.removeIf(chunk -> {
+            if (chunk.count > 0) {
+                return false;
+            }
+            chunks[chunk.position] = null;
+            if (spare.size() < MAX_SPARE_CHUNKS) {
+                spare.push(chunk);
+            }
+            return true;
+        });
+
+        // Chunks take consecutive ranges of entries; within a chunk, a counting sort by cell
+        for (Chunk chunk : occupied) {
+            Arrays.fill(chunk.start, 0);
+        }
+        for (int i = 0; i < count; i++) {
+            chunkOf[i].start[cellOf[i] + 1]++;
+        }
+        int base = 0;
+        for (Chunk chunk : occupied) {
+            chunk.start[0] = base;
+            for (int c = 0; c < CHUNK_AREA; c++) {
+                chunk.start[c + 1] += chunk.start[c];
+            }
+            System.arraycopy(chunk.start, 0, chunk.cursor, 0, CHUNK_AREA);
+            base += chunk.count;
+        }
+        // Ships are placed in index order, so each cell keeps ascending ship indices
+        for (int i = 0; i < count; i++) {
+            entries[chunkOf[i].cursor[cellOf[i]]++] = i;
+            chunkOf[i] = null;
+        }
+    }
+
+    int column(double x) {
+        return Math.min(columns - 1, Math.max(0, (int) (x / cellSize)));
+    }
+
+    int row(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) (y / cellSize)));
+    }
+
+    int rows() { return rows; }
+
+    /** First entry of the cell; the cell's entries end at {@link #cellEnd} */
+    int cellStart(int column, int row) {
+        Chunk chunk = chunks[(row / CHUNK_CELLS) * chunkColumns + column / CHUNK_CELLS];
+        return chunk == null ? 0 : chunk.start[(row % CHUNK_CELLS) * CHUNK_CELLS + column % CHUNK_CELLS];
+    }
+
+    int cellEnd(int column, int row) {
+        Chunk chunk = chunks[(row / CHUNK_CELLS) * chunkColumns + column / CHUNK_CELLS];
+        return chunk == null ? 0 : chunk.start[(row % CHUNK_CELLS) * CHUNK_CELLS + column % CHUNK_CELLS + 1];
+    }
+
+    /** Index into {@link #ship} of the i-th entry in cell order */
+    int entry(int i) { return entries[i]; }
+    Spaceship ship(int index) { return ships.get(index); }
+    int size() { return ships.size(); }
+}
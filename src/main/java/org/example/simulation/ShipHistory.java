@@ -0,0 +1,80 @@
+package org.example.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of ship positions for the last {@code capacity} ticks, one column per ship slot.
+ * Rows are reused tick after tick; arrays only grow when a room gets more slots than ever before.
+ */
+final class ShipHistory {
+    private final int capacity;
+    private final long[] rowTick;
+    private int slots;
+    private double[] xs;
+    private double[] ys;
+    private boolean[] present;
+
+    ShipHistory(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.rowTick = new long[this.capacity];
+        Arrays.fill(rowTick, -1);
+        ensureSlots(8);
+    }
+
+    void ensureSlots(int required) {
+        if (required <= slots) {
+            return;
+        }
+        int grown = Math.max(required, slots * 2);
+        double[] newXs = new double[capacity * grown];
+        double[] newYs = new double[capacity * grown];
+        boolean[] newPresent = new boolean[capacity * grown];
+        for (int row = 0; row < capacity; row++) {
+            if (slots > 0) {
+                System.arraycopy(xs, row * slots, newXs, row * grown, slots);
+                System.arraycopy(ys, row * slots, newYs, row * grown, slots);
+                System.arraycopy(present, row * slots, newPresent, row * grown, slots);
+            }
+        }
+        xs = newXs;
+        ys = newYs;
+        present = newPresent;
+        slots = grown;
+    }
+
+    /**
+     * Starts the row for {@code tick}, clearing whatever it held {@code capacity} ticks ago.
+     */
+    void beginTick(long tick) {
+        int row = row(tick);
+        rowTick[row] = tick;
+        Arrays.fill(present, row * slots, (row + 1) * slots, false);
+    }
+
+    void record(long tick, int slot, double x, double y) {
+        int i = row(tick) * slots + slot;
+        xs[i] = x;
+        ys[i] = y;
+        present[i] = true;
+    }
+
+    /**
+     * Whether the slot's position at {@code tick} is still in the buffer.
+     */
+    boolean has(long tick, int slot) {
+        int row = row(tick);
+        return tick >= 0 && rowTick[row] == tick && slot < slots && present[row * slots + slot];
+    }
+
+    double x(long tick, int slot) {
+        return xs[row(tick) * slots + slot];
+    }
+
+    double y(long tick, int slot) {
+        return ys[row(tick) * slots + slot];
+    }
+
+    private int row(long tick) {
+        return (int) Math.floorMod(tick, (long) capacity);
+    }
+}
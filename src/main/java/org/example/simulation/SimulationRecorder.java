@@ -0,0 +1,33 @@
+package org.example.simulation;
+
+import java.util.List;
+
+/**
+ * Receives every operation that changes a {@link GameSimulation}, in the order they are applied.
+ * Together with the seed, this is enough to re-run the match. Calls are made under the simulation's lock.
+ */
+public interface SimulationRecorder {
+    SimulationRecorder NONE = new SimulationRecorder() {
+    };
+
+    /**
+     * @param tick the simulation tick at which the operation was applied
+     */
+    default void spawned(long tick, String playerId) {
+    }
+
+    default void spawnedAll(long tick, List<String> playerIds) {
+    }
+
+    default void removed(long tick, String playerId) {
+    }
+
+    default void stepped(long tick, List<TickInput> inputs) {
+    }
+
+    /**
+     * The match is over or the room was abandoned; nothing else will be recorded.
+     */
+    default void closed(long tick) {
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.simulation;
+
+import org.example.model.PlayerInput;
+
+/**
+ * One player's input as applied by a simulation step.
+ */
+public record TickInput(String playerId, PlayerInput input) {
+}
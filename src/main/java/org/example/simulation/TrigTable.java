@@ -0,0 +1,40 @@
+package org.example.simulation;
+
+/**
+ * Sine and cosine per {@link #STEPS_PER_DEGREE}th of a degree. Computed once with {@link StrictMath}, so every
+ * JVM and every JIT tier sees the same values and the simulation stays bit-for-bit reproducible.
+ *
+ * <p>Ships turn {@code 312.5 * stepMs / 1000} degrees per step, a multiple of 1/16 degree for any whole
+ * {@code stepMs}, so headings land on table entries exactly at every step rate and never drift from the
+ * angle clients render.
+ */
+public final class TrigTable {
+    public static final int STEPS_PER_DEGREE = 16;
+    private static final int STEPS = 360 * STEPS_PER_DEGREE;
+    private static final int QUARTER_TURN = STEPS / 4;
+    private static final double[] SIN = new double[STEPS];
+
+    static {
+        for (int step = 0; step < STEPS; step++) {
+            SIN[step] = StrictMath.sin(StrictMath.toRadians((double) step / STEPS_PER_DEGREE));
+        }
+    }
+
+    private TrigTable() {
+    }
+
+    /**
+     * The table index of an angle: rounded to a table step and wrapped into a full turn.
+     */
+    public static int index(double angle) {
+        return Math.floorMod(Math.round(angle * STEPS_PER_DEGREE), STEPS);
+    }
+
+    public static double cos(double angleDegrees) {
+        return SIN[(index(angleDegrees) + QUARTER_TURN) % STEPS];
+    }
+
+    public static double sin(double angleDegrees) {
+        return SIN[index(angleDegrees)];
+    }
+}